@@ -0,0 +1,312 @@
+// scripts/loadtest.mjs
+/**
+ * フロント業務1日分の呼び出しを、起動中の API サーバに対して再生する負荷試験
+ * - 画面が実際に呼ぶエンドポイントをそのまま使う（検索・登録・チェックイン/アウト・ダッシュボード）
+ * - 宿泊者は /guest/register で投入する（件数は LOADTEST_GUESTS）
+ * - チェックイン/アウトは本日の一覧から未処理の予約だけを1件ずつ使う（無くなればスキップとして数える）
+ *   ウォームアップでは使わず、計測本番だけで消費する
+ * - エンドポイントごとの p50 / p99 / 最大 / スループットを表示し、JSON にも書き出す
+ *
+ * 使い方：
+ *   LOADTEST_BASE=http://localhost:8080 LOADTEST_USER=admin LOADTEST_PASSWORD=... \
+ *   LOADTEST_GUESTS=500 LOADTEST_REQUESTS=5000 LOADTEST_CONCURRENCY=16 npm run loadtest
+ */
+import { writeFile } from "node:fs/promises";
+import { randomUUID } from "node:crypto";
+
+const env = process.env;
+const BASE = (env.LOADTEST_BASE || "http://localhost:8080").replace(/\/$/, "");
+const GUESTS = Number(env.LOADTEST_GUESTS || 200);
+const REQUESTS = Number(env.LOADTEST_REQUESTS || 2000);
+const WARMUP = Number(env.LOADTEST_WARMUP || 100);
+const CONCURRENCY = Number(env.LOADTEST_CONCURRENCY || 16);
+const SEED = Number(env.LOADTEST_SEED || 42);
+const OUT = env.LOADTEST_OUT || `loadtest-results-${new Date().toISOString().slice(0, 10)}.json`;
+
+// 1日の中での呼び出し比率（重み）
+const MIX = [
+  ["search", 35],
+  ["register", 15],
+  ["checkIn", 15],
+  ["checkOut", 10],
+  ["dashboard", 15],
+  ["bookings", 10],
+];
+
+/* =========================
+   共通
+   ========================= */
+// シード付き乱数（同じシードなら毎回同じ呼び出し列になる）
+const mulberry32 = (seed) => () => {
+  let t = (seed += 0x6d2b79f5);
+  t = Math.imul(t ^ (t >>> 15), t | 1);
+  t ^= t + Math.imul(t ^ (t >>> 7), t | 61);
+  return ((t ^ (t >>> 14)) >>> 0) / 4294967296;
+};
+const random = mulberry32(SEED);
+const pick = (list) => list[Math.floor(random() * list.length)];
+
+const localDate = (offsetDays = 0) => {
+  const d = new Date();
+  d.setDate(d.getDate() + offsetDays);
+  return [
+    d.getFullYear(),
+    String(d.getMonth() + 1).padStart(2, "0"),
+    String(d.getDate()).padStart(2, "0"),
+  ].join("-");
+};
+
+let cookie = "";
+
+const call = async (method, path, { body, params, headers = {} } = {}) => {
+  const url = new URL(`${BASE}${path}`);
+  for (const [k, v] of Object.entries(params || {})) url.searchParams.set(k, v);
+  const res = await fetch(url, {
+    method,
+    headers: {
+      Cookie: cookie,
+      ...(body !== undefined && { "Content-Type": "application/json" }),
+      ...headers,
+    },
+    body: body !== undefined ? JSON.stringify(body) : undefined,
+  });
+  const text = await res.text();
+  return { status: res.status, ok: res.ok, text };
+};
+
+const json = (res) => {
+  try {
+    return JSON.parse(res.text);
+  } catch {
+    return null;
+  }
+};
+
+/* =========================
+   計測
+   ========================= */
+const stats = new Map(); // endpoint → { samples: number[], errors, skipped }
+const statOf = (endpoint) => {
+  if (!stats.has(endpoint)) stats.set(endpoint, { samples: [], errors: 0, skipped: 0 });
+  return stats.get(endpoint);
+};
+
+let recording = false;
+const timed = async (endpoint, fn) => {
+  const start = performance.now();
+  let ok = false;
+  try {
+    ok = (await fn()).ok;
+  } catch {
+    ok = false;
+  }
+  if (!recording) return;
+  const s = statOf(endpoint);
+  s.samples.push(performance.now() - start);
+  if (!ok) s.errors += 1;
+};
+
+const percentile = (sorted, p) => sorted[Math.max(0, Math.ceil(p * sorted.length) - 1)] ?? 0;
+
+/* =========================
+   準備（ログイン・宿泊者の投入）
+   ========================= */
+const login = async () => {
+  const res = await fetch(`${BASE}/login`, {
+    method: "POST",
+    headers: { "Content-Type": "application/x-www-form-urlencoded" },
+    body: new URLSearchParams({
+      id: env.LOADTEST_USER || "",
+      password: env.LOADTEST_PASSWORD || "",
+    }),
+    redirect: "manual",
+  });
+  const cookies = res.headers.getSetCookie?.() ?? [res.headers.get("set-cookie") || ""];
+  cookie = cookies.map((c) => c.split(";")[0]).filter(Boolean).join("; ");
+  if (!cookie) throw new Error(`ログインに失敗しました（${res.status}）`);
+};
+
+const FAMILY = [["佐藤", "サトウ"], ["鈴木", "スズキ"], ["高橋", "タカハシ"], ["田中", "タナカ"]];
+const GIVEN = [["花子", "ハナコ"], ["太郎", "タロウ"], ["由紀", "ユキ"], ["健太", "ケンタ"]];
+let guestSeq = 0;
+
+// RegisterModal と同じ形の登録内容
+const newRegistration = (bookings, checkInDate) => {
+  const n = guestSeq++;
+  const [family, familyKana] = pick(FAMILY);
+  const [given, givenKana] = pick(GIVEN);
+  return {
+    guest: {
+      name: `${family}${given}`,
+      kanaName: `${familyKana}${givenKana}`,
+      gender: random() < 0.5 ? "男性" : "女性",
+      age: 18 + Math.floor(random() * 70),
+      region: "東京",
+      email: `loadtest${SEED}-${n}@example.com`,
+      phone: `090${String(SEED * 100000 + n).padStart(8, "0").slice(-8)}`,
+    },
+    bookingId: pick(bookings).id,
+    stayDays: 1 + Math.floor(random() * 3),
+    checkInDate,
+    memo: "負荷試験",
+  };
+};
+
+const register = (registration) =>
+  call("PUT", "/guest/register", {
+    body: registration,
+    headers: { "Idempotency-Key": randomUUID() },
+  });
+
+// 本日の一覧から、処理できる予約を { id, name } で取り出す
+const todayPool = async (path, status) => {
+  const list = json(await call("GET", path)) ?? [];
+  return list.flatMap((g) =>
+    (g.reservations ?? [])
+      .filter((r) => r.status === status)
+      .map((r) => ({ id: r.id, name: g.guest?.name ?? "" }))
+  );
+};
+
+/* =========================
+   1日分の呼び出し
+   ========================= */
+const buildDay = (count, ctx) => {
+  const total = MIX.reduce((sum, [, w]) => sum + w, 0);
+  const ops = [];
+  for (let i = 0; i < count; i++) {
+    let roll = random() * total;
+    const [op] = MIX.find(([, w]) => (roll -= w) < 0) ?? MIX[MIX.length - 1];
+    ops.push(() => run(op, ctx));
+  }
+  return ops;
+};
+
+const run = async (op, ctx) => {
+  switch (op) {
+    case "search": {
+      const g = pick(ctx.registered);
+      const body = pick([{ name: g.name }, { kanaName: g.kanaName }, { phone: g.phone }]);
+      return timed("POST /guest/search", () =>
+        call("POST", "/guest/search", { body: { ...body, showDeleted: false } })
+      );
+    }
+    case "register": {
+      const registration = newRegistration(ctx.bookings, localDate(Math.floor(random() * 30)));
+      ctx.registered.push(registration.guest);
+      return timed("PUT /guest/register", () => register(registration));
+    }
+    case "checkIn": {
+      if (!recording) return;
+      const r = ctx.checkIns.pop();
+      if (!r) return (statOf("PUT /guest/checkIn").skipped += 1);
+      return timed("PUT /guest/checkIn", () =>
+        call("PUT", "/guest/checkIn", { params: { id: r.id, name: r.name } })
+      );
+    }
+    case "checkOut": {
+      if (!recording) return;
+      const r = ctx.checkOuts.pop();
+      if (!r) return (statOf("PUT /guest/checkOut").skipped += 1);
+      return timed("PUT /guest/checkOut", () =>
+        call("PUT", "/guest/checkOut", { params: { id: r.id, name: r.name } })
+      );
+    }
+    case "dashboard":
+      // ダッシュボード表示と同じく2本を並行で取得する
+      return Promise.all([
+        timed("GET /guests/stay", () => call("GET", "/guests/stay")),
+        timed("GET /dashboard/summary", () => call("GET", "/dashboard/summary")),
+      ]);
+    default:
+      return timed("GET /bookings", () => call("GET", "/bookings"));
+  }
+};
+
+// 同時実行数を上限に順に流す
+const replay = async (ops) => {
+  let next = 0;
+  const worker = async () => {
+    while (next < ops.length) await ops[next++]();
+  };
+  await Promise.all(Array.from({ length: CONCURRENCY }, worker));
+};
+
+/* =========================
+   実行
+   ========================= */
+const main = async () => {
+  await login();
+
+  const bookings = (json(await call("GET", "/bookings")) ?? []).filter(
+    (b) => b.isAvailable !== false
+  );
+  if (bookings.length === 0) throw new Error("利用可能な宿泊プランがありません。");
+
+  // 宿泊者の投入：半数は本日チェックイン、残りは30日以内
+  const registered = [];
+  const seeds = Array.from({ length: GUESTS }, (_, i) =>
+    newRegistration(bookings, localDate(i % 2 === 0 ? 0 : 1 + Math.floor(random() * 30)))
+  );
+  let failed = 0;
+  await replay(
+    seeds.map((s) => async () => {
+      const res = await register(s);
+      if (res.ok) registered.push(s.guest);
+      else failed += 1;
+    })
+  );
+  console.log(`seeded guests=${registered.length} failed=${failed}`);
+  if (registered.length === 0) throw new Error("宿泊者を投入できませんでした。");
+
+  const ctx = {
+    bookings,
+    registered,
+    checkIns: await todayPool("/guests/check-in-today", "NOT_CHECKED_IN"),
+    checkOuts: await todayPool("/guests/check-out-today", "CHECKED_IN"),
+  };
+
+  // ウォームアップ（結果は捨てる）
+  await replay(buildDay(WARMUP, ctx));
+
+  recording = true;
+  const start = performance.now();
+  await replay(buildDay(REQUESTS, ctx));
+  const wallMs = performance.now() - start;
+
+  const endpoints = [...stats.entries()].map(([endpoint, s]) => {
+    const sorted = [...s.samples].sort((a, b) => a - b);
+    return {
+      endpoint,
+      count: sorted.length,
+      errors: s.errors,
+      skipped: s.skipped,
+      p50Ms: +percentile(sorted, 0.5).toFixed(2),
+      p99Ms: +percentile(sorted, 0.99).toFixed(2),
+      maxMs: +(sorted[sorted.length - 1] ?? 0).toFixed(2),
+      throughputPerSec: +(sorted.length / (wallMs / 1000)).toFixed(1),
+    };
+  });
+
+  console.log(
+    `requests=${REQUESTS} concurrency=${CONCURRENCY} elapsed=${(wallMs / 1000).toFixed(1)}s`
+  );
+  console.table(endpoints);
+
+  const report = {
+    base: BASE,
+    guests: GUESTS,
+    requests: REQUESTS,
+    concurrency: CONCURRENCY,
+    seed: SEED,
+    elapsedMs: Math.round(wallMs),
+    endpoints,
+  };
+  await writeFile(OUT, JSON.stringify(report, null, 2));
+  console.log(`results: ${OUT}`);
+};
+
+main().catch((e) => {
+  console.error(e);
+  process.exit(1);
+});
@@ -14,6 +14,7 @@ import BookingListPage from './pages/BookingListPage/BookingListPage';
 import SearchGuestPage from './pages/SearchGuestPage/SearchGuestPage';
 import RegisterReservationPage from './pages/RegisterReservationPage/RegisterReservationPage';
 import RegisterBookingPage from './pages/RegisterBookingPage/RegisterBookingPage';
+import ImportReservationPage from './pages/ImportReservationPage/ImportReservationPage';
 import CheckInPage from './pages/CheckInPage/CheckInPage';
 import CheckOutPage from './pages/CheckOutPage/CheckOutPage';
 import RegisterUserPage from './pages/RegisterUserPage/RegisterUserPage';
@@ -54,6 +55,7 @@ const AppLayout = () => {
           <Route path="search" element={<SearchGuestPage />} />
           <Route path="match" element={<RegisterReservationPage />} />
           <Route path="register-booking" element={<RegisterBookingPage />} />
+          <Route path="import" element={<ImportReservationPage />} />
           <Route path="check-in" element={<CheckInPage />} />
           <Route path="check-out" element={<CheckOutPage />} />
     
@@ -1,6 +1,8 @@
 import React, { useState } from "react";
 import { LogOut } from "lucide-react";
 import { useNavigate } from "react-router-dom";
+import { clearEtagCache } from "../lib/api.js";
+import { invalidateBookings } from "../lib/bookingLookup.js";
 
 const LogoutButton = () => {
   const [open, setOpen] = useState(false);
@@ -22,6 +24,9 @@ const LogoutButton = () => {
       deleteAllCookies();
       localStorage.clear();
       sessionStorage.clear();
+      // 前のユーザーの一覧・プランを次のログインで使わないよう、メモリ上のキャッシュも破棄する
+      clearEtagCache();
+      invalidateBookings();
     } catch (e) {
       console.error("Logout cleanup error:", e);
     } finally {
@@ -2,12 +2,14 @@
 import React, { useEffect, useMemo, useState } from 'react';
 import axios from 'axios';
 import API_BASE from '../../../utils/apiBase.js';
+import { invalidateBookings } from '../../../lib/bookingLookup.js';
 import '../EditGuestModal/EditGuestModal.css'; // 既存スタイル流用
 
 axios.defaults.withCredentials = true;
 
+// UUID v1〜v8 を許可（サーバ採番の時系列 UUID v7 を含む）
 const UUID_RE =
-  /^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}$/;
+  /^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-8][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}$/;
 
 export default function EditBookingModal({ bookingDetail, onClose }) {
   // 編集モード前提（作成エンドポイントは今回使わない）
@@ -97,6 +99,7 @@ export default function EditBookingModal({ bookingDetail, onClose }) {
       const res = await axios.put(`${API_BASE}/booking/update`, payload, {
         headers: { 'Content-Type': 'application/json' },
       });
+      invalidateBookings();
       alert((typeof res.data === 'string' ? res.data : res.data?.message) ?? '宿泊プランの更新が完了しました');
       onClose?.();
     } catch (err) {
@@ -123,6 +126,7 @@ export default function EditBookingModal({ bookingDetail, onClose }) {
       const res = await axios.put(`${API_BASE}/booking/deleted`, null, {
         params: { id: String(formData.id).trim(), name: formData.name || '' },
       });
+      invalidateBookings();
       alert((typeof res.data === 'string' ? res.data : res.data?.message) ?? 'プラン情報を変更しました。');
       // サーバ側でトグルされる想定なのでフロントも反転しておく
       setFormData((prev) => ({ ...prev, isAvailable: !prev.isAvailable }));
@@ -1,6 +1,21 @@
-import React, { useMemo, useState, useEffect } from "react";
+import React, { useMemo, useState, useEffect, useRef } from "react";
 import axios from "axios";
 import API_BASE from "../../../utils/apiBase.js";
+import api from "../../../lib/api.js";
+import { loadBookingMap } from "../../../lib/bookingLookup.js";
+
+// 空室確認を入力が落ち着いてから行うまでの待ち時間
+const AVAILABILITY_DELAY_MS = 300;
+
+// 冪等キー（同じ登録の再送をサーバ側で1件にまとめるためのキー）
+const newIdempotencyKey = () => {
+  if (typeof crypto !== "undefined" && crypto.randomUUID) return crypto.randomUUID();
+  const b = crypto.getRandomValues(new Uint8Array(16));
+  b[6] = (b[6] & 0x0f) | 0x40;
+  b[8] = (b[8] & 0x3f) | 0x80;
+  const h = [...b].map((x) => x.toString(16).padStart(2, "0")).join("");
+  return `${h.slice(0, 8)}-${h.slice(8, 12)}-${h.slice(12, 16)}-${h.slice(16, 20)}-${h.slice(20)}`;
+};
 
 /**
  * 宿泊者登録モーダル
@@ -126,10 +141,9 @@ const RegisterModal = ({ open, onClose, guest, mode = null, searchMatched = fals
     const fetchBookingOptions = async () => {
       try {
         setBookingFetchErr("");
-        const url = `${API_BASE}/bookings`;
-        const res = await axios.get(url, { withCredentials: true });
-        const listRaw = Array.isArray(res.data) ? res.data : [];
-        const list = listRaw.map((b) => ({
+        // プラン一覧はキャッシュ済みなら再取得しない
+        const bookingMap = await loadBookingMap();
+        const list = [...bookingMap.values()].map((b) => ({
           id: b.id,
           name: b.name ?? b.planName ?? b.title ?? b.id,
         }));
@@ -145,7 +159,7 @@ const RegisterModal = ({ open, onClose, guest, mode = null, searchMatched = fals
         setGenderFetchErr("");
         // 任意のメタAPI。無ければフォールバックへ
         const url = `${API_BASE}/meta/genders`;
-        const res = await axios.get(url, { withCredentials: true });
+        const res = await api.get(url); // ETag で未変更なら本文を再取得しない
         const listRaw = Array.isArray(res.data) ? res.data : [];
         const normalized = listRaw
           .map((x) => (typeof x === "string" ? x : x?.name))
@@ -173,12 +187,57 @@ const RegisterModal = ({ open, onClose, guest, mode = null, searchMatched = fals
     return `${d.getFullYear()}-${mm}-${dd}`;
   }, []);
 
+  // 空室数（プラン・チェックイン日・泊数が揃ったら確認。null は未確認）
+  const [freeRooms, setFreeRooms] = useState(null);
+  useEffect(() => {
+    const nights = Number(registration.stayDays);
+    if (!open || !registration.bookingId || !registration.checkInDate || !(nights >= 1)) {
+      setFreeRooms(null);
+      return undefined;
+    }
+    let alive = true;
+    // 入力中（泊数・日付のキー入力ごと）に問い合わせないよう、最後の変更から少し待って1回だけ確認する
+    const timer = setTimeout(() => {
+      api
+        .get(`${API_BASE}/availability`, {
+          params: {
+            bookingId: registration.bookingId,
+            checkInDate: registration.checkInDate,
+            stayDays: nights,
+          },
+        })
+        .then((res) => {
+          if (!alive) return;
+          const n = res.data?.freeRooms;
+          setFreeRooms(n != null ? Number(n) : null);
+        })
+        .catch(() => {
+          // 確認できない場合は登録時のサーバ判定に任せる
+          if (alive) setFreeRooms(null);
+        });
+    }, AVAILABILITY_DELAY_MS);
+    return () => {
+      alive = false;
+      clearTimeout(timer);
+    };
+  }, [open, registration.bookingId, registration.checkInDate, registration.stayDays]);
+
+  // UUID v1〜v8 を許可（サーバ採番の時系列 UUID v7 を含む）
   const uuidRegex =
-    /^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-5][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}$/;
+    /^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[1-8][0-9a-fA-F]{3}-[89abAB][0-9a-fA-F]{3}-[0-9a-fA-F]{12}$/;
 
   const [errors, setErrors] = useState({});
   const [message, setMessage] = useState("");
 
+  // 送信中フラグと冪等キー
+  // - キーは送信内容ごとに発行し、通信エラーでの再送時だけ同じキーを使う
+  // - サーバから応答があった失敗（4xx/5xx）の後や内容を変えた場合は新しいキーにする
+  const [submitting, setSubmitting] = useState(false);
+  const idempotencyRef = useRef(null); // { key, body }
+  useEffect(() => {
+    if (open) idempotencyRef.current = null;
+  }, [open]);
+
   // フロントのバリデーションは最小限（必須・型程度）
   const validate = () => {
     const e = {};
@@ -247,8 +306,9 @@ const RegisterModal = ({ open, onClose, guest, mode = null, searchMatched = fals
   };
 
   const handleSubmit = async () => {
-    if (!validate()) return;
+    if (submitting || !validate()) return;
 
+    setSubmitting(true);
     try {
       const body = {
         guest: {
@@ -262,8 +322,16 @@ const RegisterModal = ({ open, onClose, guest, mode = null, searchMatched = fals
         memo: registration.memo ?? "",
       };
 
+      const fingerprint = JSON.stringify(body);
+      if (idempotencyRef.current?.body !== fingerprint) {
+        idempotencyRef.current = { key: newIdempotencyKey(), body: fingerprint };
+      }
+
       const url = `${API_BASE}/guest/register`;
-      const res = await axios.put(url, body, { withCredentials: true });
+      const res = await axios.put(url, body, {
+        withCredentials: true,
+        headers: { "Idempotency-Key": idempotencyRef.current.key },
+      });
 
       const msg =
         typeof res.data === "string"
@@ -276,13 +344,26 @@ const RegisterModal = ({ open, onClose, guest, mode = null, searchMatched = fals
         onClose?.();
       }, 800);
     } catch (err) {
+      // 入力エラー（400 / 422）のときだけ確定扱いにし、再送には新しいキーを使う
+      // 5xx や 409（同じキーの処理中など）はサーバ側で登録済みの可能性があるため、同じキーで再送する
+      const status = err?.response?.status;
+      if (status === 400 || status === 422) idempotencyRef.current = null;
       const data = err?.response?.data;
+      // 409 は満室以外（冪等キーの競合・同一人物の重複など）でも返るため、エラーコードで判別する
+      if (err?.response?.status === 409 && data?.code === "SOLD_OUT") {
+        // 登録処理の時点で満室になっていた（他の端末で先に登録された）
+        setFreeRooms(0);
+        setMessage("満室のため登録できませんでした。日程またはプランを変更してください。");
+        return;
+      }
       applyServerErrors(data);
       const fallback =
         typeof data === "string"
           ? data
           : data?.message || "登録に失敗しました。入力内容をご確認ください。";
       setMessage(fallback);
+    } finally {
+      setSubmitting(false);
     }
   };
 
@@ -547,6 +628,14 @@ const lockNameKanaPhone = mode === "new" && !searchMatched;
             </div>
           </div>
 
+          {freeRooms != null && (
+            <div style={{ color: freeRooms > 0 ? "green" : "red", fontSize: 12, marginTop: 6 }}>
+              {freeRooms > 0
+                ? `空室あり（残り${freeRooms}室）`
+                : "満室のため、この日程では登録できません"}
+            </div>
+          )}
+
           <div style={{ marginTop: 10 }}>
             <label>メモ</label>
             <br />
@@ -566,7 +655,9 @@ const lockNameKanaPhone = mode === "new" && !searchMatched;
           style={{ display: "flex", gap: 12, justifyContent: "flex-end", marginTop: 14 }}
         >
           <button onClick={onClose}>閉じる</button>
-          <button onClick={handleSubmit}>この内容で登録</button>
+          <button onClick={handleSubmit} disabled={submitting || freeRooms === 0}>
+            {submitting ? "登録中…" : "この内容で登録"}
+          </button>
         </div>
 
         {/* メッセージ */}
@@ -6,6 +6,8 @@ import axios from 'axios';
 import logoImage from '../assets/logo.png';
 import './Header.css';
 import API_BASE from "../utils/apiBase.js";
+import { clearEtagCache } from "../lib/api.js";
+import { invalidateBookings } from "../lib/bookingLookup.js";
 
 const TopHeader = () => {
   const [menuOpen, setMenuOpen] = useState(false);
@@ -14,6 +16,8 @@ const TopHeader = () => {
   const handleLogout = async () => {
     try {
       await axios.post(`${API_BASE}/user/logout`, {}, { withCredentials: true });
+      clearEtagCache();
+      invalidateBookings();
       navigate('/'); // ログアウト後トップページへ
     } catch (err) {
       console.error('ログアウト失敗:', err);
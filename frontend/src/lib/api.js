@@ -7,10 +7,54 @@ const api = axios.create({
   withCredentials: true, // セッションCookie送受信を常に有効
 });
 
-// 必要ならここで共通エラーハンドリング
-// api.interceptors.response.use(
-//   (res) => res,
-//   (err) => Promise.reject(err)
-// );
+/* =========================
+   ETag による条件付き GET
+   ========================= */
+// 一覧系 GET はサーバが ETag（テーブルの更新バージョン）を返す。
+// 次回は If-None-Match を付けて送り、304 なら前回のレスポンス本文をそのまま使う。
+// （変更が無ければ本文の転送も DB 検索も発生しない）
+const MAX_ENTRIES = 100;
+const etagCache = new Map(); // key(URL+クエリ) → { etag, data }
 
-export default api;
\ No newline at end of file
+const cacheKey = (config) => api.getUri(config);
+
+api.interceptors.request.use((config) => {
+  if ((config.method || "get").toLowerCase() !== "get") return config;
+  const hit = etagCache.get(cacheKey(config));
+  if (hit) {
+    config.headers = config.headers || {};
+    config.headers["If-None-Match"] = hit.etag;
+    // 304 もエラーにせず受け取る
+    config.validateStatus = (s) => (s >= 200 && s < 300) || s === 304;
+  }
+  return config;
+});
+
+api.interceptors.response.use((res) => {
+  const { config } = res;
+  if ((config.method || "get").toLowerCase() !== "get") return res;
+  const key = cacheKey(config);
+
+  if (res.status === 304) {
+    const hit = etagCache.get(key);
+    // 送信後に追い出されていた場合は条件なしで取り直す
+    if (!hit) return api.get(config.url, { params: config.params });
+    // 最近使ったものを末尾へ（古いものから捨てる）
+    etagCache.delete(key);
+    etagCache.set(key, hit);
+    return { ...res, status: 200, data: hit.data, fromCache: true };
+  }
+
+  const etag = res.headers?.etag;
+  if (etag) {
+    etagCache.delete(key);
+    etagCache.set(key, { etag, data: res.data });
+    if (etagCache.size > MAX_ENTRIES) etagCache.delete(etagCache.keys().next().value);
+  }
+  return res;
+});
+
+// ログアウト時など、保持しているレスポンスを破棄する
+export const clearEtagCache = () => etagCache.clear();
+
+export default api;
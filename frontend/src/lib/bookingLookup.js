@@ -0,0 +1,81 @@
+// src/lib/bookingLookup.js
+import { useCallback, useEffect, useState } from "react";
+import api from "./api.js";
+import API_BASE from "../utils/apiBase.js";
+
+/**
+ * 宿泊プランの参照用キャッシュ
+ * - /bookings は件数が少なく更新も稀なので、画面をまたいで1回だけ取得して使い回す
+ * - 検索結果に bookings が同梱されていなくても、bookingId からプランを引ける
+ * - プランの登録/更新/利用停止の後とログアウト時は invalidateBookings() で破棄する
+ * - 他端末での変更も拾えるよう、一定時間で取り直す
+ */
+const TTL_MS = 5 * 60 * 1000;
+
+let cache = null; // Promise<Map<id, booking>>
+let loadedAt = 0;
+
+export const invalidateBookings = () => {
+  cache = null;
+};
+
+export const loadBookingMap = () => {
+  if (cache && Date.now() - loadedAt > TTL_MS) cache = null;
+  if (!cache) {
+    loadedAt = Date.now();
+    cache = api
+      .get(`${API_BASE}/bookings`)
+      .then((res) => {
+        const list = Array.isArray(res.data) ? res.data : [];
+        return new Map(list.map((b) => [b.id, b]));
+      })
+      .catch((e) => {
+        cache = null; // 失敗時は次回取り直す
+        throw e;
+      });
+  }
+  return cache;
+};
+
+/**
+ * プランを重複排除した形式 { bookings: [], guests: [{ guest, reservations }] } を
+ * GuestDetailDto の配列に戻す（配列ならそのまま返す。どちらでもなければ null）
+ * - 各宿泊者の bookings は共有のプランを参照するだけで複製しない
+ */
+export const expandGuestDetails = (data) => {
+  if (Array.isArray(data)) return data;
+  if (!Array.isArray(data?.guests)) return null;
+  const byId = new Map((data.bookings ?? []).map((b) => [b.id, b]));
+  return data.guests.map((d) => {
+    const ids = new Set((d?.reservations ?? []).map((r) => r.bookingId));
+    return { ...d, bookings: [...ids].map((id) => byId.get(id)).filter(Boolean) };
+  });
+};
+
+/**
+ * bookingId → プランを返す関数を提供するフック
+ * 使い方：
+ *   const findBooking = useBookingLookup();
+ *   findBooking(r.bookingId, detail.bookings)?.name
+ */
+export const useBookingLookup = () => {
+  const [map, setMap] = useState(() => new Map());
+
+  useEffect(() => {
+    let alive = true;
+    loadBookingMap()
+      .then((m) => alive && setMap(m))
+      .catch((e) => console.error("宿泊プランの取得失敗:", e));
+    return () => {
+      alive = false;
+    };
+  }, []);
+
+  // キャッシュを優先し、無ければレスポンスに同梱された bookings から探す
+  return useCallback(
+    (id, bundled = []) => map.get(id) ?? bundled.find((b) => b?.id === id) ?? null,
+    [map]
+  );
+};
+
+export default useBookingLookup;
@@ -0,0 +1,145 @@
+// src/lib/events.js
+import { useCallback, useEffect, useRef } from "react";
+import API_BASE from "../utils/apiBase.js";
+
+/**
+ * フロント業務の状態変更（SSE）を購読するフック
+ * - サーバは /events に text/event-stream で差分を流す
+ *     event: reservation-status   data: { reservationId, guestId, status, detail? }
+ *       （detail はチェックイン時の GuestDetailDto。一覧に行を追加するのに使う）
+ *     event: reservation-updated  data: { reservation }
+ *     event: guest-updated        data: { guest }
+ * - 受け取った差分は各画面がローカルの一覧に適用する（一覧は再取得しない）
+ * - 切断時は EventSource が自動で再接続する。切断中の差分は届かないため、
+ *   再接続できたら onResync で一度だけ取り直す
+ *
+ * 使い方：
+ *   useFrontDeskEvents({
+ *     onReservationStatus: ({ reservationId, status }) => ...,
+ *     onResync: () => refetch(),
+ *   });
+ */
+export const useFrontDeskEvents = (handlers) => {
+  // 最新のハンドラを参照する（接続は画面表示中に1本だけ張る）
+  const handlersRef = useRef(handlers);
+  useEffect(() => {
+    handlersRef.current = handlers;
+  });
+
+  useEffect(() => {
+    if (typeof EventSource === "undefined") return undefined;
+
+    const source = new EventSource(`${API_BASE}/events`, { withCredentials: true });
+    let opened = false;
+
+    const listen = (type, key) =>
+      source.addEventListener(type, (e) => {
+        try {
+          handlersRef.current?.[key]?.(JSON.parse(e.data));
+        } catch (err) {
+          console.error(`[events] ${type} の処理に失敗:`, err);
+        }
+      });
+
+    listen("reservation-status", "onReservationStatus");
+    listen("reservation-updated", "onReservationUpdated");
+    listen("guest-updated", "onGuestUpdated");
+
+    source.addEventListener("open", () => {
+      if (opened) handlersRef.current?.onResync?.();
+      opened = true;
+    });
+
+    return () => source.close();
+  }, []);
+};
+
+/* =========================
+   GuestDetailDto 一覧への差分適用
+   ========================= */
+
+/** 指定した予約を一覧から除き、予約が無くなった宿泊者も除く */
+export const removeReservations = (list, ids) => {
+  const drop = new Set(ids);
+  return list
+    .map((g) => ({
+      ...g,
+      reservations: (g.reservations || []).filter((r) => !drop.has(r.id)),
+    }))
+    .filter((g) => (g.reservations || []).length > 0);
+};
+
+/** 予約の変更内容を一覧に反映する（一覧に無い予約は無視） */
+export const patchReservation = (list, reservation) =>
+  list.map((g) =>
+    (g.reservations || []).some((r) => r.id === reservation?.id)
+      ? {
+          ...g,
+          reservations: g.reservations.map((r) =>
+            r.id === reservation.id ? { ...r, ...reservation } : r
+          ),
+        }
+      : g
+  );
+
+/** 宿泊者の詳細を一覧に追加する（既にいれば予約をまとめる） */
+export const upsertGuestDetail = (list, detail) => {
+  const id = detail?.guest?.id;
+  if (!id) return list;
+  const current = list.find((g) => g.guest?.id === id);
+  if (!current) return [...list, detail];
+  const known = new Set((current.reservations || []).map((r) => r.id));
+  return list.map((g) =>
+    g === current
+      ? {
+          ...g,
+          guest: { ...g.guest, ...detail.guest },
+          reservations: [
+            ...(g.reservations || []),
+            ...(detail.reservations || []).filter((r) => !known.has(r.id)),
+          ],
+          bookings: [...(g.bookings || []), ...(detail.bookings || [])],
+        }
+      : g
+  );
+};
+
+/** 宿泊者の変更内容を一覧に反映する（一覧に無い宿泊者は無視） */
+export const patchGuest = (list, guest) =>
+  list.map((g) =>
+    g.guest?.id && g.guest.id === guest?.id ? { ...g, guest: { ...g.guest, ...guest } } : g
+  );
+
+/**
+ * 連続したイベントによる再取得を1回にまとめるフック（最後の呼び出しから delay 後に1回だけ実行）
+ * 使い方：
+ *   const refreshLater = useBatchedRefresh(refetch, 1000);
+ *   refreshLater();
+ */
+export const useBatchedRefresh = (fn, delay = 1000) => {
+  const fnRef = useRef(fn);
+  const timerRef = useRef(null);
+  useEffect(() => {
+    fnRef.current = fn;
+  });
+  useEffect(() => () => clearTimeout(timerRef.current), []);
+
+  return useCallback(() => {
+    clearTimeout(timerRef.current);
+    timerRef.current = setTimeout(() => fnRef.current?.(), delay);
+  }, [delay]);
+};
+
+/** 今日（ローカル日付）か。日付が無い場合は null（判断しない） */
+export const isToday = (date) => {
+  if (!date) return null;
+  const now = new Date();
+  const today = [
+    now.getFullYear(),
+    String(now.getMonth() + 1).padStart(2, "0"),
+    String(now.getDate()).padStart(2, "0"),
+  ].join("-");
+  return String(date).slice(0, 10) === today;
+};
+
+export default useFrontDeskEvents;
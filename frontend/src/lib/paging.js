@@ -0,0 +1,143 @@
+// src/lib/paging.js
+import { useCallback, useEffect, useRef, useState } from "react";
+import api from "./api.js";
+import streamList from "./stream.js";
+import API_BASE from "../utils/apiBase.js";
+
+/**
+ * キーセット（カーソル）方式のページ取得フック
+ * - GET {path}?size=&cursor=&...params → { items: [], nextCursor: string | null }
+ * - cursor はサーバが発行する不透明なトークン（中身は解釈しない）
+ * - 「前へ」のために、取得に使ったカーソルを積んでおく（OFFSET は使わない）
+ * - ページ取得 API が無いサーバ（404）では fallbackPath から全件を1回取得し、
+ *   prepare(list, params) で絞り込み・並べ替えてからクライアント側でページングする
+ *   （配列以外の応答は transform で配列に戻す）
+ *   （このときのカーソルは先頭からの件数）
+ *
+ * 使い方：
+ *   const pager = useKeysetPager("/guests/page", { sort: "kanaName" }, 20, {
+ *     fallbackPath: "/guests",
+ *     prepare: (list, params) => ...,
+ *   });
+ *   pager.items / pager.next() / pager.prev() / pager.reload()
+ */
+export const useKeysetPager = (
+  path,
+  params,
+  size = 20,
+  { fallbackPath, prepare, transform } = {}
+) => {
+  const [items, setItems] = useState([]);
+  const [cursors, setCursors] = useState([null]); // cursors[i] = i+1 ページ目の取得に使ったカーソル
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loading, setLoading] = useState(false);
+  const [error, setError] = useState(null);
+  const seqRef = useRef(0); // 古いレスポンスで上書きしないための連番
+  const legacyRef = useRef(false); // ページ取得 API が無いサーバか
+  const allRef = useRef(null); // 旧サーバ用：取得済みの全件
+  const prepareRef = useRef(prepare);
+  prepareRef.current = prepare;
+  const transformRef = useRef(transform);
+  transformRef.current = transform;
+
+  // params はオブジェクトなので中身で比較する
+  const paramsKey = JSON.stringify(params ?? {});
+
+  const fetchPage = useCallback(
+    async (cursor, fresh) => {
+      const query = JSON.parse(paramsKey);
+      if (!legacyRef.current) {
+        try {
+          const res = await api.get(`${API_BASE}${path}`, {
+            params: { ...query, size, cursor: cursor ?? undefined },
+          });
+          return {
+            items: Array.isArray(res.data?.items) ? res.data.items : [],
+            nextCursor: res.data?.nextCursor ?? null,
+          };
+        } catch (e) {
+          if (!fallbackPath || e?.response?.status !== 404) throw e;
+          legacyRef.current = true;
+        }
+      }
+
+      // 旧サーバ：全件を取得してクライアント側でページング
+      if (!allRef.current || fresh) {
+        const all = [];
+        await streamList(fallbackPath, {
+          transform: transformRef.current,
+          onItems: (chunk) => {
+            for (const item of chunk) all.push(item);
+          },
+        });
+        allRef.current = all;
+      }
+      const list = prepareRef.current ? prepareRef.current(allRef.current, query) : allRef.current;
+      const offset = Number(cursor) || 0;
+      const end = offset + size;
+      return {
+        items: list.slice(offset, end),
+        nextCursor: end < list.length ? String(end) : null,
+      };
+    },
+    [path, paramsKey, size, fallbackPath]
+  );
+
+  const load = useCallback(
+    async (cursor, fresh = false) => {
+      const seq = ++seqRef.current;
+      setLoading(true);
+      setError(null);
+      try {
+        const page = await fetchPage(cursor, fresh);
+        if (seq !== seqRef.current) return;
+        setItems(page.items);
+        setNextCursor(page.nextCursor);
+      } catch (e) {
+        if (seq !== seqRef.current) return;
+        setError(e);
+        setItems([]);
+        setNextCursor(null);
+      } finally {
+        if (seq === seqRef.current) setLoading(false);
+      }
+    },
+    [fetchPage]
+  );
+
+  // 条件が変わったら1ページ目から取り直す
+  useEffect(() => {
+    setCursors([null]);
+    load(null);
+  }, [load]);
+
+  const next = () => {
+    if (!nextCursor || loading) return;
+    setCursors((prev) => [...prev, nextCursor]);
+    load(nextCursor);
+  };
+
+  const prev = () => {
+    if (cursors.length <= 1 || loading) return;
+    const rest = cursors.slice(0, -1);
+    setCursors(rest);
+    load(rest[rest.length - 1]);
+  };
+
+  // 編集後などの再取得（旧サーバでは全件を取り直す）
+  const reload = () => load(cursors[cursors.length - 1], true);
+
+  return {
+    items,
+    page: cursors.length,
+    hasNext: !!nextCursor,
+    hasPrev: cursors.length > 1,
+    loading,
+    error,
+    next,
+    prev,
+    reload,
+  };
+};
+
+export default useKeysetPager;
@@ -0,0 +1,85 @@
+// src/lib/stream.js
+import API_BASE from "../utils/apiBase.js";
+
+/**
+ * 一覧レスポンスを少しずつ読み込むためのヘルパー
+ * - サーバが application/x-ndjson（1行1件）で返した場合は、届いた分から onItems に流す
+ * - 通常の JSON 配列で返ってきた場合は、まとめて1回 onItems に渡す（旧サーバ互換）
+ * - 配列以外の JSON は transform（応答 → 配列）を渡した場合のみ受け付け、無ければエラーにする
+ *
+ * 使い方：
+ *   await streamList("/guests", { onItems: (items) => setGuests((p) => p.concat(items)) });
+ *
+ * body に FormData を渡した場合はそのまま multipart で送る（ファイルのアップロード用）
+ * 2xx 以外の応答は error.response = { status, data } を付けて投げる
+ *
+ * 戻り値：受信した件数
+ */
+export const streamList = async (
+  path,
+  { method = "GET", body, onItems, signal, transform } = {}
+) => {
+  const headers = { Accept: "application/x-ndjson, application/json" };
+  const isForm = typeof FormData !== "undefined" && body instanceof FormData;
+  if (body !== undefined && !isForm) headers["Content-Type"] = "application/json";
+
+  const res = await fetch(`${API_BASE}${path}`, {
+    method,
+    credentials: "include",
+    headers,
+    body: body === undefined || isForm ? body : JSON.stringify(body),
+    signal,
+  });
+  if (!res.ok) {
+    // axios と同じく error.response.{status, data} に応答を載せる（画面側でサーバのメッセージを出せるように）
+    const text = await res.text().catch(() => "");
+    let data = text || null;
+    try {
+      data = text ? JSON.parse(text) : null;
+    } catch {
+      // JSON でなければ文字列のまま
+    }
+    const error = new Error(`${method} ${path} failed: ${res.status}`);
+    error.response = { status: res.status, data };
+    throw error;
+  }
+
+  const type = res.headers.get("Content-Type") || "";
+  if (!type.includes("ndjson") || !res.body) {
+    const data = await res.json();
+    const list = Array.isArray(data) ? data : transform?.(data);
+    if (!Array.isArray(list)) throw new Error(`${method} ${path}: unexpected response`);
+    onItems?.(list);
+    return list.length;
+  }
+
+  // NDJSON：チャンク単位でまとめて渡す（1件ごとに再描画させない）
+  const reader = res.body.getReader();
+  const decoder = new TextDecoder();
+  let rest = "";
+  let count = 0;
+
+  const flush = (lines) => {
+    const items = [];
+    for (const line of lines) {
+      if (line.trim()) items.push(JSON.parse(line));
+    }
+    if (items.length > 0) {
+      count += items.length;
+      onItems?.(items);
+    }
+  };
+
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) break;
+    rest += decoder.decode(value, { stream: true });
+    const lines = rest.split("\n");
+    rest = lines.pop();
+    flush(lines);
+  }
+  flush([rest + decoder.decode()]);
+  return count;
+};
+
+export default streamList;
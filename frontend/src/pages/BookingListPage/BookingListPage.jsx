@@ -1,57 +1,30 @@
 // src/pages/BookingListPage/BookingListPage.jsx
-import React, { useEffect, useMemo, useState } from 'react';
+import React, { useState } from 'react';
 import EditBookingModal from '../../components/Modal/EditBookingModal/EditBookingModal';
 import './BookingListPage.css';
-import API_BASE from "../../utils/apiBase.js";
+import { useKeysetPager } from "../../lib/paging.js";
 
 const PAGE_SIZE = 20;
 
-export default function BookingListPage() {
-  const [bookings, setBookings] = useState([]);
-  const [loading, setLoading] = useState(false);
-  const [err, setErr] = useState('');
+// ページ取得 API が無いサーバ向け：利用可能なものだけに絞る
+const prepareBookings = (list, { showDeleted }) =>
+  showDeleted ? list : list.filter((b) => b.isAvailable !== false);
 
+export default function BookingListPage() {
   const [showDeleted, setShowDeleted] = useState(false);
 
-  // ページング
-  const [page, setPage] = useState(1);
-
   // モーダル
   const [bookingModalOpen, setBookingModalOpen] = useState(false);
   const [selectedBooking, setSelectedBooking] = useState(null);
 
-  useEffect(() => {
-    fetchAll();
-  }, []);
-
-  const fetchAll = async () => {
-    try {
-      setLoading(true);
-      setErr('');
-      const res = await fetch(`${API_BASE}/bookings`, { credentials: 'include' });
-      const data = await res.json();
-      setBookings(Array.isArray(data) ? data : []);
-    } catch (e) {
-      console.error(e);
-      setErr('宿泊プランの取得に失敗しました。');
-    } finally {
-      setLoading(false);
-    }
-  };
-
- const visible = useMemo(() => {
-  if (showDeleted) return bookings;
-  // 利用可能なものだけ表示
-  return (bookings ?? []).filter((b) => b.isAvailable !== false);
-}, [bookings, showDeleted]);
-
-  // ページング
-  const total = visible.length;
-  const totalPages = Math.max(1, Math.ceil(total / PAGE_SIZE));
-  const safePage = Math.min(Math.max(1, page), totalPages);
-  const start = (safePage - 1) * PAGE_SIZE;
-  const end = start + PAGE_SIZE;
-  const pageItems = visible.slice(start, end);
+  // ページング（必要なページだけサーバから取得。利用不可の除外もサーバ側で行う）
+  const pager = useKeysetPager('/bookings/page', { showDeleted }, PAGE_SIZE, {
+    fallbackPath: '/bookings',
+    prepare: prepareBookings,
+  });
+  const pageItems = pager.items;
+  const loading = pager.loading;
+  const err = pager.error ? '宿泊プランの取得に失敗しました。' : '';
 
   return (
     <div className="booking-list-page">
@@ -77,7 +50,7 @@ export default function BookingListPage() {
 
       {/* 件数 */}
       <div className="gl-count">
-        全{total}件中 {total ? start + 1 : 0}-{Math.min(end, total)}件を表示
+        {pager.page}ページ目（{pageItems.length}件）を表示
       </div>
 
       {loading && <div className="gl-state">読み込み中…</div>}
@@ -118,21 +91,11 @@ export default function BookingListPage() {
 
           {/* ページャ */}
           <div className="gl-pager" role="navigation">
-            <button
-              className="gl-pagebtn"
-              onClick={() => setPage((p) => Math.max(1, p - 1))}
-              disabled={safePage === 1}
-            >
+            <button className="gl-pagebtn" onClick={pager.prev} disabled={!pager.hasPrev}>
               前へ
             </button>
-            <span className="gl-pageinfo">
-              {safePage} / {totalPages}
-            </span>
-            <button
-              className="gl-pagebtn"
-              onClick={() => setPage((p) => Math.min(totalPages, p + 1))}
-              disabled={safePage === totalPages}
-            >
+            <span className="gl-pageinfo">{pager.page}</span>
+            <button className="gl-pagebtn" onClick={pager.next} disabled={!pager.hasNext}>
               次へ
             </button>
           </div>
@@ -146,7 +109,7 @@ export default function BookingListPage() {
           onClose={async () => {
             setBookingModalOpen(false);
             setSelectedBooking(null);
-            await fetchAll();
+            pager.reload();
           }}
         />
       )}
@@ -2,6 +2,16 @@ import React, { useEffect, useState, useCallback } from 'react';
 import axios from 'axios';
 import './CheckInPage.css';
 import API_BASE from "../../utils/apiBase.js";
+import api from "../../lib/api.js";
+import { useBookingLookup } from "../../lib/bookingLookup.js";
+import {
+  useFrontDeskEvents,
+  removeReservations as removeFrom,
+  patchReservation,
+  patchGuest,
+  useBatchedRefresh,
+  isToday,
+} from "../../lib/events.js";
 
 const formatDate = (d) => (d ? new Date(d).toISOString().slice(0, 10) : '');
 const formatJPY = (n) =>
@@ -9,34 +19,103 @@ const formatJPY = (n) =>
     ? n.toLocaleString('ja-JP', { style: 'currency', currency: 'JPY' })
     : '';
 
+const checkInOne = (id, name) =>
+  axios.put(`${API_BASE}/guest/checkIn`, {}, { params: { id, name }, withCredentials: true });
+
+// 409 は状態の競合以外でも返るため、エラーコードで「既に処理済み」を判別する
+const isStatusConflict = (error) =>
+  error?.response?.status === 409 && error.response.data?.code === 'STATUS_CONFLICT';
+
+// 団体チェックイン API が無いサーバでは1件ずつチェックインする（処理済みはスキップ扱い）
+const checkInEach = async (ids, nameOf) => {
+  const checkedIn = [];
+  const skipped = [];
+  const failed = [];
+  for (const id of ids) {
+    try {
+      await checkInOne(id, nameOf(id));
+      checkedIn.push(id);
+    } catch (error) {
+      if (isStatusConflict(error)) {
+        skipped.push(id);
+      } else {
+        console.error('チェックイン失敗:', id, error);
+        failed.push(id);
+      }
+    }
+  }
+  return { checkedIn, skipped, failed };
+};
+
+const checkInBatch = async (ids, nameOf) => {
+  try {
+    // 1回の更新でまとめて状態遷移し、処理済みの予約はスキップされる
+    const res = await axios.put(
+      `${API_BASE}/guest/checkIn/batch`,
+      { ids },
+      { withCredentials: true }
+    );
+    return {
+      checkedIn: res.data?.checkedIn ?? ids,
+      skipped: res.data?.skipped ?? [],
+      failed: [],
+    };
+  } catch (error) {
+    if (error?.response?.status !== 404) throw error;
+    return checkInEach(ids, nameOf);
+  }
+};
+
 const CheckInPage = () => {
+  // 一覧にプランが同梱されていなくても、キャッシュ済みのプランから引く
+  const findBooking = useBookingLookup();
   const [guests, setGuests] = useState([]);
   const [message, setMessage] = useState('');
   const [loading, setLoading] = useState(true);
 
   // 確認ダイアログ
   const [confirmOpen, setConfirmOpen] = useState(false);
-  const [pending, setPending] = useState(null); // { reservationId, guestName }
+  const [pending, setPending] = useState(null); // { reservationIds, guestName }
+  const [submitting, setSubmitting] = useState(false); // 二重送信防止
+
+  // 団体チェックイン用の選択
+  const [selected, setSelected] = useState(() => new Set());
+  const toggleSelect = (id) => {
+    setSelected((prev) => {
+      const next = new Set(prev);
+      next.has(id) ? next.delete(id) : next.add(id);
+      return next;
+    });
+  };
+
+  const fetchTodayGuests = useCallback(async () => {
+    try {
+      // 変更が無ければ 304 で前回の一覧を使う
+      const res = await api.get(`${API_BASE}/guests/check-in-today`);
+      const list = Array.isArray(res.data) ? res.data : [];
+      setGuests(list);
+      // 一覧から消えた予約は選択からも外す（団体チェックインで送らないように）
+      const listed = new Set(list.flatMap((g) => (g.reservations || []).map((r) => r.id)));
+      setSelected((prev) => new Set([...prev].filter((id) => listed.has(id))));
+    } catch (error) {
+      console.error('本日宿泊者の取得失敗:', error);
+      setMessage('本日チェックイン予定の取得に失敗しました。');
+    } finally {
+      setLoading(false);
+    }
+  }, []);
 
   useEffect(() => {
-    const fetchTodayGuests = async () => {
-      try {
-        const res = await axios.get(`${API_BASE}/guests/check-in-today`, {
-          withCredentials: true,
-        });
-        setGuests(Array.isArray(res.data) ? res.data : []);
-      } catch (error) {
-        console.error('本日宿泊者の取得失敗:', error);
-        setMessage('本日チェックイン予定の取得に失敗しました。');
-      } finally {
-        setLoading(false);
-      }
-    };
     fetchTodayGuests();
-  }, []);
+  }, [fetchTodayGuests]);
 
   const openConfirm = (reservationId, guestName) => {
-    setPending({ reservationId, guestName });
+    setPending({ reservationIds: [reservationId], guestName });
+    setConfirmOpen(true);
+  };
+  const openBatchConfirm = () => {
+    if (selected.size === 0) return;
+    setPending({ reservationIds: [...selected], guestName: '' });
     setConfirmOpen(true);
   };
   const closeConfirm = useCallback(() => {
@@ -44,34 +123,82 @@ const CheckInPage = () => {
     setPending(null);
   }, []);
 
+  // 対象予約を除去（一覧を即時更新）
+  const removeReservations = (ids) => {
+    const drop = new Set(ids);
+    setGuests((prev) => removeFrom(prev, ids));
+    setSelected((prev) => new Set([...prev].filter((id) => !drop.has(id))));
+  };
+
+  // 本日に変更された予約は手元に宿泊者の情報が無いため、まとめて1回だけ取り直す
+  const refetchLater = useBatchedRefresh(fetchTodayGuests);
+
+  // 他端末での操作を差分で反映（一覧は再取得しない）
+  useFrontDeskEvents({
+    onReservationStatus: ({ reservationId, status }) => {
+      if (status !== 'NOT_CHECKED_IN') removeReservations([reservationId]);
+    },
+    onReservationUpdated: ({ reservation }) => {
+      const today = isToday(reservation?.checkInDate);
+      // チェックイン済み・キャンセル、またはチェックイン日が今日でなくなった予約は外す
+      if ((reservation?.status && reservation.status !== 'NOT_CHECKED_IN') || today === false) {
+        removeReservations([reservation.id]);
+        return;
+      }
+      const listed = guests.some((g) =>
+        (g.reservations || []).some((r) => r.id === reservation?.id)
+      );
+      if (!listed) {
+        if (today) refetchLater();
+        return;
+      }
+      setGuests((prev) => patchReservation(prev, reservation));
+    },
+    onGuestUpdated: ({ guest }) => setGuests((prev) => patchGuest(prev, guest)),
+    onResync: fetchTodayGuests,
+  });
+
   const doCheckIn = async () => {
-    if (!pending) return;
-    const { reservationId, guestName } = pending;
+    if (!pending || submitting) return;
+    const { reservationIds, guestName } = pending;
+    setSubmitting(true);
     try {
-      const res = await axios.put(
-        `${API_BASE}/guest/checkIn`,
-        {},
-        { params: { id: reservationId, name: guestName }, withCredentials: true }
-      );
-      setMessage(typeof res.data === 'string' ? res.data : 'チェックイン完了');
-
-      // 対象予約を除去（一覧を即時更新）
-      setGuests((prev) =>
-        prev
-          .map((g) => ({
-            ...g,
-            reservations: (g.reservations || []).filter((r) => r.id !== reservationId),
-          }))
-          .filter((g) => (g.reservations || []).length > 0)
-      );
+      if (reservationIds.length === 1) {
+        const res = await checkInOne(reservationIds[0], guestName);
+        setMessage(typeof res.data === 'string' ? res.data : 'チェックイン完了');
+        removeReservations(reservationIds);
+      } else {
+        // 団体チェックイン
+        const nameOf = (id) =>
+          guests.find((g) => (g.reservations || []).some((r) => r.id === id))?.guest?.name ?? '';
+        const { checkedIn, skipped, failed } = await checkInBatch(reservationIds, nameOf);
+        const notes = [
+          skipped.length > 0 && `${skipped.length}件は処理済みのためスキップ`,
+          failed.length > 0 && `${failed.length}件は失敗`,
+        ].filter(Boolean);
+        setMessage(
+          `${checkedIn.length}件チェックインしました` + (notes.length ? `（${notes.join('、')}）` : '')
+        );
+        // 失敗した予約は一覧に残し、再度選択できるようにする
+        removeReservations([...checkedIn, ...skipped]);
+      }
     } catch (error) {
       console.error('チェックイン失敗:', error);
+      if (reservationIds.length === 1 && isStatusConflict(error)) {
+        // 他の端末で先に処理された（ステータスが未チェックインではなくなっている）
+        removeReservations(reservationIds);
+        setMessage('他の端末で既にチェックイン済みです。一覧から除外しました。');
+        return;
+      }
       const msg =
         error?.response?.data?.message ||
         (typeof error?.response?.data === 'string' ? error.response.data : null) ||
         'チェックインに失敗しました。';
       setMessage(msg);
+      // どの予約が処理済みか分からない競合は、一覧を取り直して実際の状態に合わせる
+      if (error?.response?.status === 409) fetchTodayGuests();
     } finally {
+      setSubmitting(false);
       closeConfirm();
     }
   };
@@ -87,6 +214,11 @@ const CheckInPage = () => {
     <div className="check-in-container">
       <div className="ci-header">
         {message && <p className="message">{message}</p>}
+        {selected.size > 0 && (
+          <button className="ci-btn-primary ci-batch-btn" onClick={openBatchConfirm}>
+            選択した{selected.size}件をチェックイン
+          </button>
+        )}
       </div>
 
     {/* 一覧：カード表示 */}
@@ -98,8 +230,7 @@ const CheckInPage = () => {
   <div className="ci-card-grid">
     {guests.flatMap((g) =>
       (g.reservations || []).map((res) => {
-        const booking =
-          (g.bookings || []).find((b) => b.id === res.bookingId) || null;
+        const booking = findBooking(res.bookingId, g.bookings || []);
 
         return (
           <article className="ci-card" key={res.id}>
@@ -109,6 +240,13 @@ const CheckInPage = () => {
                 <div className="ci-name">{g.guest?.name ?? ''}</div>
                 <div className="ci-sub ci-mono">{g.guest?.phone ?? ''}</div>
               </div>
+              <label className="ci-select" title="まとめてチェックインする予約を選択">
+                <input
+                  type="checkbox"
+                  checked={selected.has(res.id)}
+                  onChange={() => toggleSelect(res.id)}
+                />
+              </label>
             </header>
 
             <div className="ci-card-body">
@@ -158,15 +296,19 @@ const CheckInPage = () => {
           >
             <h3 className="ci-modal-title">チェックインの確認</h3>
             <p className="ci-modal-body">
-              {pending?.guestName ? `${pending.guestName} 様を` : 'この宿泊者を'}
+              {(pending?.reservationIds?.length ?? 0) > 1
+                ? `選択した${pending.reservationIds.length}件の予約を`
+                : pending?.guestName
+                ? `${pending.guestName} 様を`
+                : 'この宿泊者を'}
               チェックインします。よろしいですか？
             </p>
             <div className="ci-modal-actions">
               <button className="ci-btn-secondary" onClick={closeConfirm}>
                 いいえ
               </button>
-              <button className="ci-btn-primary" onClick={doCheckIn}>
-                はい
+              <button className="ci-btn-primary" onClick={doCheckIn} disabled={submitting}>
+                {submitting ? '処理中…' : 'はい'}
               </button>
             </div>
           </div>
@@ -3,6 +3,16 @@ import React, { useEffect, useState, useCallback } from 'react';
 import axios from 'axios';
 import '../CheckInPage/CheckInPage.css'; // 既存のスタイルを流用（パスは環境に合わせて）
 import API_BASE from "../../utils/apiBase.js";
+import api from "../../lib/api.js";
+import { useBookingLookup } from "../../lib/bookingLookup.js";
+import {
+  useFrontDeskEvents,
+  removeReservations,
+  patchReservation,
+  patchGuest,
+  useBatchedRefresh,
+  isToday,
+} from "../../lib/events.js";
 
 const formatDate = (d) => (d ? new Date(d).toISOString().slice(0, 10) : '');
 const formatJPY = (n) =>
@@ -10,7 +20,22 @@ const formatJPY = (n) =>
     ? n.toLocaleString('ja-JP', { style: 'currency', currency: 'JPY' })
     : '';
 
+// チェックアウト予定日（checkOutDate が無ければチェックイン日＋泊数）
+const plannedOutDate = (r) => {
+  if (r?.checkOutDate) return r.checkOutDate;
+  if (!r?.checkInDate || r?.stayDays == null) return null;
+  const d = new Date(`${String(r.checkInDate).slice(0, 10)}T00:00:00`);
+  d.setDate(d.getDate() + Number(r.stayDays));
+  return [
+    d.getFullYear(),
+    String(d.getMonth() + 1).padStart(2, '0'),
+    String(d.getDate()).padStart(2, '0'),
+  ].join('-');
+};
+
 const CheckOutPage = () => {
+  // 一覧にプランが同梱されていなくても、キャッシュ済みのプランから引く
+  const findBooking = useBookingLookup();
   const [guests, setGuests] = useState([]);
   const [message, setMessage] = useState('');
   const [loading, setLoading] = useState(true);
@@ -18,23 +43,24 @@ const CheckOutPage = () => {
   // 確認ダイアログ
   const [confirmOpen, setConfirmOpen] = useState(false);
   const [pending, setPending] = useState(null); // { reservationId, guestName }
+  const [submitting, setSubmitting] = useState(false); // 二重送信防止
+
+  const fetchTodayGuests = useCallback(async () => {
+    try {
+      // 変更が無ければ 304 で前回の一覧を使う
+      const res = await api.get(`${API_BASE}/guests/check-out-today`);
+      setGuests(Array.isArray(res.data) ? res.data : []);
+    } catch (error) {
+      console.error('本日チェックアウト予定の取得失敗:', error);
+      setMessage('本日チェックアウト予定の取得に失敗しました。');
+    } finally {
+      setLoading(false);
+    }
+  }, []);
 
   useEffect(() => {
-    const fetchTodayGuests = async () => {
-      try {
-        const res = await axios.get(`${API_BASE}/guests/check-out-today`, {
-          withCredentials: true,
-        });
-        setGuests(Array.isArray(res.data) ? res.data : []);
-      } catch (error) {
-        console.error('本日チェックアウト予定の取得失敗:', error);
-        setMessage('本日チェックアウト予定の取得に失敗しました。');
-      } finally {
-        setLoading(false);
-      }
-    };
     fetchTodayGuests();
-  }, []);
+  }, [fetchTodayGuests]);
 
   const openConfirm = (reservationId, guestName) => {
     setPending({ reservationId, guestName });
@@ -45,9 +71,43 @@ const CheckOutPage = () => {
     setPending(null);
   }, []);
 
+  // 対象予約を除去（一覧を即時更新）
+  const removeReservation = (reservationId) => {
+    setGuests((prev) => removeReservations(prev, [reservationId]));
+  };
+
+  // 本日に変更された予約は手元に宿泊者の情報が無いため、まとめて1回だけ取り直す
+  const refetchLater = useBatchedRefresh(fetchTodayGuests);
+
+  // 他端末での操作を差分で反映（一覧は再取得しない）
+  useFrontDeskEvents({
+    onReservationStatus: ({ reservationId, status }) => {
+      if (status !== 'CHECKED_IN') removeReservation(reservationId);
+    },
+    onReservationUpdated: ({ reservation }) => {
+      const today = isToday(plannedOutDate(reservation));
+      // 宿泊中でなくなった、またはチェックアウト予定日が今日でなくなった予約は外す
+      if ((reservation?.status && reservation.status !== 'CHECKED_IN') || today === false) {
+        removeReservation(reservation.id);
+        return;
+      }
+      const listed = guests.some((g) =>
+        (g.reservations || []).some((r) => r.id === reservation?.id)
+      );
+      if (!listed) {
+        if (today) refetchLater();
+        return;
+      }
+      setGuests((prev) => patchReservation(prev, reservation));
+    },
+    onGuestUpdated: ({ guest }) => setGuests((prev) => patchGuest(prev, guest)),
+    onResync: fetchTodayGuests,
+  });
+
   const doCheckOut = async () => {
-    if (!pending) return;
+    if (!pending || submitting) return;
     const { reservationId, guestName } = pending;
+    setSubmitting(true);
     try {
       const res = await axios.put(
         `${API_BASE}/guest/checkOut`,
@@ -55,24 +115,25 @@ const CheckOutPage = () => {
         { params: { id: reservationId, name: guestName }, withCredentials: true }
       );
       setMessage(typeof res.data === 'string' ? res.data : 'チェックアウト完了');
-
-      // 対象予約を除去（一覧を即時更新）
-      setGuests((prev) =>
-        prev
-          .map((g) => ({
-            ...g,
-            reservations: (g.reservations || []).filter((r) => r.id !== reservationId),
-          }))
-          .filter((g) => (g.reservations || []).length > 0)
-      );
+      removeReservation(reservationId);
     } catch (error) {
       console.error('チェックアウト失敗:', error);
+      // 409 は状態の競合以外でも返るため、エラーコードで「既に処理済み」を判別する
+      if (error?.response?.status === 409 && error.response.data?.code === 'STATUS_CONFLICT') {
+        // 他の端末で先に処理された（ステータスがチェックイン済みではなくなっている）
+        removeReservation(reservationId);
+        setMessage('他の端末で既にチェックアウト済みです。一覧から除外しました。');
+        return;
+      }
       const msg =
         error?.response?.data?.message ||
         (typeof error?.response?.data === 'string' ? error.response.data : null) ||
         'チェックアウトに失敗しました。';
       setMessage(msg);
+      // 理由の分からない競合は、一覧を取り直して実際の状態に合わせる
+      if (error?.response?.status === 409) fetchTodayGuests();
     } finally {
+      setSubmitting(false);
       closeConfirm();
     }
   };
@@ -100,8 +161,7 @@ const CheckOutPage = () => {
         <div className="ci-card-grid">
           {guests.flatMap((g) =>
             (g.reservations || []).map((res) => {
-              const booking =
-                (g.bookings || []).find((b) => b.id === res.bookingId) || null;
+              const booking = findBooking(res.bookingId, g.bookings || []);
 
               return (
                 <article className="ci-card" key={res.id}>
@@ -177,8 +237,8 @@ const CheckOutPage = () => {
               <button className="ci-btn-secondary" onClick={closeConfirm}>
                 いいえ
               </button>
-              <button className="ci-btn-primary" onClick={doCheckOut}>
-                はい
+              <button className="ci-btn-primary" onClick={doCheckOut} disabled={submitting}>
+                {submitting ? '処理中…' : 'はい'}
               </button>
             </div>
           </div>
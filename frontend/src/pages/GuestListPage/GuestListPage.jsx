@@ -1,13 +1,34 @@
 // src/pages/GuestListPage/GuestListPage.jsx
-import React, { useEffect, useMemo, useState } from 'react';
+import React, { useMemo, useState } from 'react';
 import EditGuestModal from '../../components/Modal/EditGuestModal/EditGuestModal';
 import EditReservationModal from '../../components/Modal/EditReservationModal/EditReservationModal.tsx';
 import './GuestListPage.css';
-import API_BASE from "../../utils/apiBase.js";
-import { toKatakana, useKanaHandlers } from "../../utils/textUtils.js";
+import { normalizeGuestQuery, useKanaHandlers } from "../../utils/textUtils.js";
+import streamList from "../../lib/stream.js";
+import { useKeysetPager } from "../../lib/paging.js";
+import { useBookingLookup, expandGuestDetails } from "../../lib/bookingLookup.js";
 
 const PAGE_SIZE = 20;
 
+// 予約の中で最も新しい値（並べ替え用）
+const latestOf = (detail, key) =>
+  (detail?.reservations ?? []).reduce((max, r) => (r?.[key] && r[key] > max ? r[key] : max), '');
+
+// ページ取得 API が無いサーバ向け：全件をサーバと同じ条件で絞り込み・並べ替える
+const prepareGuests = (list, { sort, status, showDeleted }) => {
+  const visible = list.filter(
+    (g) =>
+      (showDeleted || !g?.guest?.deleted) &&
+      (!status || (g.reservations ?? []).some((r) => r?.status === status))
+  );
+  if (sort === 'kanaName') {
+    return visible.sort((a, b) =>
+      (a?.guest?.kanaName ?? '').localeCompare(b?.guest?.kanaName ?? '', 'ja')
+    );
+  }
+  return visible.sort((a, b) => latestOf(b, sort).localeCompare(latestOf(a, sort)));
+};
+
 export default function GuestList() {
   const [guests, setGuests] = useState([]);
   const [loading, setLoading] = useState(false);
@@ -26,13 +47,20 @@ export default function GuestList() {
 
   const [showDeleted, setShowDeleted] = useState(false);
   const [filterStatus, setFilterStatus] = useState('ALL');
+  const [sortKey, setSortKey] = useState('kanaName');
   const [page, setPage] = useState(1);
 
+  // 検索結果を表示中か（false の間はサーバ側のページングで一覧を表示）
+  const [searching, setSearching] = useState(false);
+
   const [guestModalOpen, setGuestModalOpen] = useState(false);
   const [reservationModalOpen, setReservationModalOpen] = useState(false);
   const [selectedGuestDetail, setSelectedGuestDetail] = useState(null);
   const [selectedReservation, setSelectedReservation] = useState(null);
 
+  // 宿泊プランはキャッシュから引く（一覧・検索のたびに取り直さない）
+  const findBooking = useBookingLookup();
+
   const [expanded, setExpanded] = useState(() => new Set());
   const toggleExpand = (id) => {
     setExpanded((prev) => {
@@ -42,50 +70,55 @@ export default function GuestList() {
     });
   };
 
-  // 初回取得
-  useEffect(() => {
-    (async () => {
-      try {
-        setLoading(true);
-        const res = await fetch(`${API_BASE}/guests`, { credentials: 'include' });
-        const data = await res.json();
-        setGuests(Array.isArray(data) ? data : []);
-      } catch (e) {
-        console.error(e);
-        setErr('ゲスト一覧の取得に失敗しました。');
-      } finally {
-        setLoading(false);
-      }
-    })();
-  }, []);
+  // 通常の一覧：必要なページだけサーバから取得（キーセット方式）
+  const pager = useKeysetPager(
+    '/guests/page',
+    {
+      sort: sortKey,
+      status: filterStatus === 'ALL' ? undefined : filterStatus,
+      showDeleted,
+    },
+    PAGE_SIZE,
+    { fallbackPath: '/guests', prepare: prepareGuests, transform: expandGuestDetails }
+  );
 
   const canSearch = useMemo(() => {
     const { name, kanaName, phone, checkInDate, checkOutDate } = q;
     return !!(name || kanaName || phone || checkInDate || checkOutDate);
   }, [q]);
 
+  // 検索結果をストリームで受け取り、最初のチャンクが届いた時点で描画を始める
+  const loadGuests = async () => {
+    let first = true;
+    const onItems = (items) => {
+      setGuests((prev) => (first ? items : prev.concat(items)));
+      if (first) {
+        first = false;
+        setLoading(false);
+      }
+    };
+    const count = await streamList('/guest/search', {
+      method: 'POST',
+      body: { ...normalizeGuestQuery(q), showDeleted },
+      transform: expandGuestDetails, // プランを重複排除した形式も受け付ける
+      onItems,
+    });
+    if (count === 0) setGuests([]);
+  };
+
   const handleSearch = async () => {
+    // 条件なしの検索は通常の一覧に戻す
+    if (!canSearch) {
+      setSearching(false);
+      pager.reload();
+      return;
+    }
     try {
+      setSearching(true);
       setLoading(true);
       setErr('');
-      const payload = {
-        ...q,
-        kanaName: toKatakana(q.kanaName),
-        showDeleted,
-      };
-      const url = canSearch ? `${API_BASE}/guest/search` : `${API_BASE}/guests`;
-      const opt = canSearch
-        ? {
-            method: 'POST',
-            credentials: 'include',
-            headers: { 'Content-Type': 'application/json' },
-            body: JSON.stringify(payload),
-          }
-        : { credentials: 'include' };
-      const res = await fetch(url, opt);
-      const data = await res.json();
-      setGuests(Array.isArray(data) ? data : []);
       setPage(1);
+      await loadGuests();
     } catch (e) {
       console.error(e);
       setErr('検索に失敗しました。');
@@ -98,6 +131,8 @@ export default function GuestList() {
     setQ({ name: '', kanaName: '', phone: '', checkInDate: '', checkOutDate: '' });
     setFilterStatus('ALL');
     setPage(1);
+    setSearching(false);
+    setGuests([]);
   };
 
   const baseVisible = useMemo(() => {
@@ -118,6 +153,11 @@ export default function GuestList() {
   const end = start + PAGE_SIZE;
   const pageItems = filtered.slice(start, end);
 
+  // 表示対象（検索中はクライアント側ページング、通常はサーバ側ページング）
+  const listItems = searching ? pageItems : pager.items;
+  const listLoading = searching ? loading : pager.loading;
+  const listErr = searching ? err : pager.error ? 'ゲスト一覧の取得に失敗しました。' : '';
+
   const resolveHeader = (detail) => {
     const { guest, reservations = [], bookings = [] } = detail ?? {};
     const name = guest?.name ?? '不明なゲスト';
@@ -128,29 +168,18 @@ export default function GuestList() {
     );
     const latest = sorted[0];
     const plan =
-      bookings.find((b) => b?.id === latest?.bookingId)?.name ??
+      findBooking(latest?.bookingId, bookings)?.name ??
       (bookings[0]?.name || 'プラン不明');
     return { name, kana, phone, plan };
   };
 
   const refetch = async () => {
+    if (!searching) {
+      pager.reload();
+      return;
+    }
     try {
-      const url = canSearch ? `${API_BASE}/guest/search` : `${API_BASE}/guests`;
-      const opt = canSearch
-        ? {
-            method: 'POST',
-            credentials: 'include',
-            headers: { 'Content-Type': 'application/json' },
-            body: JSON.stringify({
-              ...q,
-              kanaName: toKatakana(q.kanaName),
-              showDeleted,
-            }),
-          }
-        : { credentials: 'include' };
-      const res = await fetch(url, opt);
-      const data = await res.json();
-      setGuests(Array.isArray(data) ? data : []);
+      await loadGuests();
     } catch (e) {
       console.error('再取得失敗', e);
     }
@@ -224,22 +253,37 @@ export default function GuestList() {
               <option value="INCLUDE">削除済みも表示</option>
             </select>
           </div>
+
+          <div className="gl-sort-filter">
+            <label>並び順：</label>
+            <select
+              value={sortKey}
+              onChange={(e) => setSortKey(e.target.value)}
+              disabled={searching}
+            >
+              <option value="kanaName">フリガナ順</option>
+              <option value="checkInDate">チェックイン日順</option>
+              <option value="createdAt">登録日順</option>
+            </select>
+          </div>
         </div>
       </section>
 
       <div className="gl-count">
-        全{total}件中 {total ? start + 1 : 0}-{Math.min(end, total)}件を表示
+        {searching
+          ? `全${total}件中 ${total ? start + 1 : 0}-${Math.min(end, total)}件を表示`
+          : `${pager.page}ページ目（${pager.items.length}件）を表示`}
       </div>
 
-      {loading && <div className="gl-state">読み込み中…</div>}
-      {err && <div className="gl-error">{err}</div>}
+      {listLoading && <div className="gl-state">読み込み中…</div>}
+      {listErr && <div className="gl-error">{listErr}</div>}
 
-      {!loading && !err && (
+      {!listLoading && !listErr && (
         <>
           <div className="yt-list">
-            {pageItems.length === 0 && <div className="gl-empty">該当する宿泊者がいません。</div>}
+            {listItems.length === 0 && <div className="gl-empty">該当する宿泊者がいません。</div>}
 
-            {pageItems.map((gd, i) => {
+            {listItems.map((gd, i) => {
               const { guest, reservations = [], bookings = [] } = gd ?? {};
               const head = resolveHeader(gd);
               const guestId = guest?.id || String(i);
@@ -294,7 +338,7 @@ export default function GuestList() {
                     <div className="yt-expand">
                       <div className="gl-reservations">
                         {reservations.map((r) => {
-                          const booking = bookings.find((b) => b?.id === r?.bookingId) || {};
+                          const booking = findBooking(r?.bookingId, bookings) || {};
                           return (
                             <div className="gl-res-row" key={r.id}>
                               <div className="gl-res-main">
@@ -325,25 +369,37 @@ export default function GuestList() {
             })}
           </div>
 
-          <div className="gl-pager">
-            <button
-              className="gl-pagebtn"
-              onClick={() => setPage((p) => Math.max(1, p - 1))}
-              disabled={safePage === 1}
-            >
-              前へ
-            </button>
-            <span className="gl-pageinfo">
-              {safePage} / {totalPages}
-            </span>
-            <button
-              className="gl-pagebtn"
-              onClick={() => setPage((p) => Math.min(totalPages, p + 1))}
-              disabled={safePage === totalPages}
-            >
-              次へ
-            </button>
-          </div>
+          {searching ? (
+            <div className="gl-pager">
+              <button
+                className="gl-pagebtn"
+                onClick={() => setPage((p) => Math.max(1, p - 1))}
+                disabled={safePage === 1}
+              >
+                前へ
+              </button>
+              <span className="gl-pageinfo">
+                {safePage} / {totalPages}
+              </span>
+              <button
+                className="gl-pagebtn"
+                onClick={() => setPage((p) => Math.min(totalPages, p + 1))}
+                disabled={safePage === totalPages}
+              >
+                次へ
+              </button>
+            </div>
+          ) : (
+            <div className="gl-pager">
+              <button className="gl-pagebtn" onClick={pager.prev} disabled={!pager.hasPrev}>
+                前へ
+              </button>
+              <span className="gl-pageinfo">{pager.page}</span>
+              <button className="gl-pagebtn" onClick={pager.next} disabled={!pager.hasNext}>
+                次へ
+              </button>
+            </div>
+          )}
         </>
       )}
 
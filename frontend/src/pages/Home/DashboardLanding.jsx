@@ -1,10 +1,19 @@
 import React, { useEffect, useState, useCallback, useMemo } from 'react';
-import axios from 'axios';
 import { FaUser, FaBed, FaCalendarAlt } from 'react-icons/fa';
 import EditGuestModal from '../../components/Modal/EditGuestModal/EditGuestModal';
 import EditReservationModal from '../../components/Modal/EditReservationModal/EditReservationModal.tsx';
 import './DashboardLanding.css';
 import API_BASE from '../../utils/apiBase.js';
+import api from '../../lib/api.js';
+import { useBookingLookup } from '../../lib/bookingLookup.js';
+import {
+  useFrontDeskEvents,
+  removeReservations,
+  patchReservation,
+  patchGuest,
+  upsertGuestDetail,
+  useBatchedRefresh,
+} from '../../lib/events.js';
 
 /* =========================
    日付ユーティリティ（JSTベースの素朴実装）
@@ -35,27 +44,68 @@ const fmt = (date) => {
   return `${y}-${m}-${d}`;
 };
 
-// レイト判定：チェックイン＋泊数(=予定アウト)が今日0時より前、かつ既にOUT/CANCELでない
+// 予定アウト日：サーバが返す checkOutDate を優先し、無い場合のみ チェックイン＋泊数 で求める
+const plannedCheckoutDate = (r) => {
+  if (r?.checkOutDate) {
+    const co = toDate(r.checkOutDate);
+    if (!isNaN(co)) return co;
+  }
+  const ci = toDate(r?.checkInDate);
+  if (isNaN(ci)) return null;
+  return addDays(ci, Number(r?.stayDays ?? 0));
+};
+
+// レイト判定：予定アウトが今日0時より前、かつ既にOUT/CANCELでない
 const isReservationLate = (r) => {
   if (!r) return false;
-  const ci = toDate(r.checkInDate);
-  if (isNaN(ci)) return false;
-  const plannedOut = addDays(ci, Number(r.stayDays ?? 0));
+  const plannedOut = plannedCheckoutDate(r);
+  if (!plannedOut) return false;
   const today0 = startOfToday();
   const isAlreadyOut = r.status === 'CHECKED_OUT' || r.status === 'CANCELLED';
   return !isAlreadyOut && plannedOut < today0;
 };
 
-const plannedCheckoutDate = (r) => {
-  const ci = toDate(r?.checkInDate);
-  if (isNaN(ci)) return null;
-  return addDays(ci, Number(r?.stayDays ?? 0));
+/* =========================
+   API 呼び出し
+   ========================= */
+const fetchStayGuests = async () => {
+  const res = await api.get(`${API_BASE}/guests/stay`);
+  return res.data ?? [];
+};
+
+// 本日の件数だけが欲しいので、一覧ではなく集計結果を1回で取得する
+const fetchSummary = async () => {
+  const res = await api.get(`${API_BASE}/dashboard/summary`);
+  return res.data ?? null;
+};
+
+// 集計 API が使えない場合は、従来どおり本日の一覧の件数から数える
+const fetchTodayCounts = async () => {
+  const [ins, outs] = await Promise.all([
+    api.get(`${API_BASE}/guests/check-in-today`),
+    api.get(`${API_BASE}/guests/check-out-today`),
+  ]);
+  return {
+    arrivals: (ins.data ?? []).length,
+    departures: (outs.data ?? []).length,
+  };
+};
+
+const loadSummary = async () => {
+  try {
+    return await fetchSummary();
+  } catch (err) {
+    console.warn('KPI 集計の取得に失敗。本日の一覧から数えます:', err);
+    return fetchTodayCounts();
+  }
 };
 
 const DashboardLanding = () => {
   const [stayGuests, setStayGuests] = useState([]);
-  const [checkInTodayList, setCheckInTodayList] = useState([]);
-  const [checkOutTodayList, setCheckOutTodayList] = useState([]);
+  // 一覧にプランが同梱されていなくても、キャッシュ済みのプランから引く
+  const findBooking = useBookingLookup();
+  // KPI：{ arrivals, departures, inHouse, overdue, occupancy }（集計 API が無い場合は arrivals / departures のみ）
+  const [summary, setSummary] = useState(null);
 
   // モーダル制御
   const [guestModalOpen, setGuestModalOpen] = useState(false);
@@ -63,36 +113,19 @@ const DashboardLanding = () => {
   const [selectedGuestDetail, setSelectedGuestDetail] = useState(null);
   const [selectedReservation, setSelectedReservation] = useState(null);
 
-  /* =========================
-     API 呼び出し
-     ========================= */
-  const fetchStayGuests = async () => {
-    const res = await axios.get(`${API_BASE}/guests/stay`, { withCredentials: true });
-    return res.data ?? [];
-  };
-
-  const fetchCheckInToday = async () => {
-    const res = await axios.get(`${API_BASE}/guests/check-in-today`, { withCredentials: true });
-    return res.data ?? [];
-  };
-
-  const fetchCheckOutToday = async () => {
-    const res = await axios.get(`${API_BASE}/guests/check-out-today`, { withCredentials: true });
-    return res.data ?? [];
-  };
-
+  // 宿泊中一覧と KPI は独立して取得する（片方の失敗でもう片方を表示しないことがないように）
   const loadAll = useCallback(async () => {
-    try {
-      const [stay, ins, outs] = await Promise.all([
-        fetchStayGuests(),
-        fetchCheckInToday(),
-        fetchCheckOutToday(),
-      ]);
-      setStayGuests(stay);
-      setCheckInTodayList(ins);
-      setCheckOutTodayList(outs);
-    } catch (err) {
-      console.error('❌ ダッシュボードデータ取得に失敗:', err);
+    const [stay, sum] = await Promise.allSettled([fetchStayGuests(), loadSummary()]);
+    if (stay.status === 'fulfilled') {
+      setStayGuests(stay.value);
+    } else {
+      console.error('❌ 宿泊中一覧の取得に失敗:', stay.reason);
+    }
+    if (sum.status === 'fulfilled') {
+      setSummary(sum.value);
+    } else {
+      console.error('❌ KPI の取得に失敗:', sum.reason);
+      setSummary(null);
     }
   }, []);
 
@@ -100,8 +133,50 @@ const DashboardLanding = () => {
     loadAll();
   }, [loadAll]);
 
-  // レイト件数（KPI）
+  const refreshSummary = useCallback(async () => {
+    try {
+      setSummary(await loadSummary());
+    } catch (err) {
+      console.error('❌ KPI の取得に失敗:', err);
+    }
+  }, []);
+
+  // イベントが続いても再取得はまとめて1回にする
+  const loadAllLater = useBatchedRefresh(loadAll);
+  const refreshSummaryLater = useBatchedRefresh(refreshSummary);
+
+  // 他端末での操作を差分で反映（一覧は手元で更新し、KPI はまとめて取り直す）
+  useFrontDeskEvents({
+    onReservationStatus: ({ reservationId, status, detail }) => {
+      if (status === 'CHECKED_IN') {
+        if (detail) {
+          // イベントに同梱された詳細で行を追加する（宿泊中の予約だけを対象にする）
+          const reservations = (detail.reservations || [])
+            .map((r) => (r.id === reservationId ? { ...r, status: 'CHECKED_IN' } : r))
+            .filter((r) => r.status === 'CHECKED_IN');
+          setStayGuests((prev) => upsertGuestDetail(prev, { ...detail, reservations }));
+        } else {
+          // 詳細が無いサーバでは、まとめて1回だけ取り直す
+          loadAllLater();
+          return;
+        }
+      }
+      if (status === 'CHECKED_OUT' || status === 'CANCELLED') {
+        setStayGuests((prev) => removeReservations(prev, [reservationId]));
+      }
+      refreshSummaryLater();
+    },
+    onReservationUpdated: ({ reservation }) => {
+      setStayGuests((prev) => patchReservation(prev, reservation));
+      refreshSummaryLater();
+    },
+    onGuestUpdated: ({ guest }) => setStayGuests((prev) => patchGuest(prev, guest)),
+    onResync: loadAll,
+  });
+
+  // レイト件数（KPI）：集計結果が無い場合のみ宿泊中一覧から数える
   const lateCount = useMemo(() => {
+    if (summary?.overdue != null) return summary.overdue;
     let count = 0;
     for (const gd of stayGuests) {
       const reservations = gd?.reservations ?? [];
@@ -110,7 +185,7 @@ const DashboardLanding = () => {
       }
     }
     return count;
-  }, [stayGuests]);
+  }, [stayGuests, summary]);
 
   return (
     <div className="dashboard-landing">
@@ -119,7 +194,7 @@ const DashboardLanding = () => {
         <div className="kpi-card">
           <div className="kpi-icon kpi-icon--blue"><FaUser /></div>
           <div className="kpi-meta">
-            <div className="kpi-value">{stayGuests.length}</div>
+            <div className="kpi-value">{summary?.inHouse ?? stayGuests.length}</div>
             <div className="kpi-label">現在の宿泊者</div>
           </div>
         </div>
@@ -127,7 +202,7 @@ const DashboardLanding = () => {
         <div className="kpi-card">
           <div className="kpi-icon kpi-icon--indigo"><FaCalendarAlt /></div>
           <div className="kpi-meta">
-            <div className="kpi-value">{checkInTodayList.length}</div>
+            <div className="kpi-value">{summary?.arrivals ?? '—'}</div>
             <div className="kpi-label">今日のチェックイン予定</div>
           </div>
         </div>
@@ -135,7 +210,7 @@ const DashboardLanding = () => {
         <div className="kpi-card">
           <div className="kpi-icon kpi-icon--purple"><FaBed /></div>
           <div className="kpi-meta">
-            <div className="kpi-value">{checkOutTodayList.length}</div>
+            <div className="kpi-value">{summary?.departures ?? '—'}</div>
             <div className="kpi-label">今日のチェックアウト予定</div>
           </div>
         </div>
@@ -163,7 +238,7 @@ const DashboardLanding = () => {
             const { guest, reservations = [], bookings = [] } = gd ?? {};
             return reservations.map((r, ri) => {
               const booking =
-                bookings.find(b => b?.id === r?.bookingId) ?? bookings[ri] ?? null;
+                findBooking(r?.bookingId, bookings) ?? bookings[ri] ?? null;
 
               const late = isReservationLate(r);
               const plannedOut = plannedCheckoutDate(r);
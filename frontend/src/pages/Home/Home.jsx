@@ -3,10 +3,12 @@ import React, { useEffect, useState, useRef } from 'react';
 import { NavLink, Outlet, useNavigate } from 'react-router-dom';
 import {
   FaHome, FaUsers, FaClipboardList, FaFileMedical,
-  FaPlusCircle, FaSignInAlt, FaSignOutAlt, FaUser, // ← 人型を使う
+  FaPlusCircle, FaFileImport, FaSignInAlt, FaSignOutAlt, FaUser, // ← 人型を使う
   FaAngleDoubleLeft, FaAngleDoubleRight
 } from 'react-icons/fa';
 import './Home.css';
+import { clearEtagCache } from '../../lib/api.js';
+import { invalidateBookings } from '../../lib/bookingLookup.js';
 
 const Home = () => {
   const navigate = useNavigate();
@@ -49,6 +51,8 @@ const Home = () => {
       deleteAllCookies();
       localStorage.clear();
       sessionStorage.clear();
+      clearEtagCache();
+      invalidateBookings();
     } catch (e) {
       console.error('Logout cleanup error:', e);
     } finally {
@@ -135,6 +139,15 @@ const Home = () => {
             <span className="nav-label">プラン登録</span>
           </NavLink>
 
+          <NavLink
+            to="import"
+            className={({ isActive }) => `nav-item ${isActive ? 'active' : ''}`}
+            title="予約一括取込"
+          >
+            <FaFileImport />
+            <span className="nav-label">予約一括取込</span>
+          </NavLink>
+
           <NavLink
             to="check-in"
             className={({ isActive }) => `nav-item ${isActive ? 'active' : ''}`}
@@ -0,0 +1,190 @@
+// src/pages/ImportReservationPage/ImportReservationPage.jsx
+import React, { useRef, useState } from "react";
+import "./ImportReservationPage.css";
+import { streamList } from "../../lib/stream.js";
+
+/**
+ * 予約一括取込（予約サイトから受け取った CSV）
+ * - POST /reservation/import（multipart: file, resumeFrom）
+ * - サーバは1行ごとの結果を NDJSON で返す
+ *     { row, status: "IMPORTED" | "ERROR", reservationId?, errors?: { field: message } }
+ * - 途中で切断された場合は、最後に結果を受け取った行の次から再開できる
+ */
+const MAX_ERROR_ROWS = 200; // 画面に出すエラー行の上限（件数は全件数える）
+
+// errors は { field: message } / [{ field, message }] / 文字列 のいずれも受け付ける
+const toMessages = (errors) => {
+  if (!errors) return [];
+  if (typeof errors === "string") return [errors];
+  if (Array.isArray(errors)) {
+    return errors.map((e) => (typeof e === "string" ? e : `${e?.field ?? ""}: ${e?.message ?? ""}`));
+  }
+  return Object.entries(errors).map(([field, msg]) => `${field}: ${msg}`);
+};
+
+// 取込自体が受け付けられなかった場合のサーバのメッセージ
+const toFailureMessage = (err) => {
+  const data = err?.response?.data;
+  if (err?.response?.status === 404) return "このサーバは予約の一括取込に対応していません。";
+  return data?.message || (typeof data === "string" ? data : null);
+};
+
+export default function ImportReservationPage() {
+  const [file, setFile] = useState(null);
+  const [running, setRunning] = useState(false);
+  const [imported, setImported] = useState(0);
+  const [failed, setFailed] = useState(0);
+  const [errorRows, setErrorRows] = useState([]);
+  const [lastRow, setLastRow] = useState(0); // 結果を受け取った最後の行番号（再開位置）
+  const [done, setDone] = useState(false); // 最終行まで取り込めたか
+  const [message, setMessage] = useState("");
+  const abortRef = useRef(null);
+
+  const reset = () => {
+    setImported(0);
+    setFailed(0);
+    setErrorRows([]);
+    setLastRow(0);
+    setDone(false);
+    setMessage("");
+  };
+
+  const onItems = (items) => {
+    let ok = 0;
+    let ng = 0;
+    let maxRow = 0;
+    const errs = [];
+    for (const r of items) {
+      if (r?.status === "ERROR") {
+        ng += 1;
+        errs.push({ row: r.row, messages: toMessages(r.errors) });
+      } else {
+        ok += 1;
+      }
+      if (typeof r?.row === "number" && r.row > maxRow) maxRow = r.row;
+    }
+    setImported((p) => p + ok);
+    setFailed((p) => p + ng);
+    if (errs.length > 0) {
+      setErrorRows((p) => (p.length >= MAX_ERROR_ROWS ? p : p.concat(errs).slice(0, MAX_ERROR_ROWS)));
+    }
+    setLastRow((p) => Math.max(p, maxRow));
+  };
+
+  const runImport = async (resumeFrom) => {
+    if (!file || running) return;
+    setRunning(true);
+    setMessage("");
+
+    const form = new FormData();
+    form.append("file", file);
+    if (resumeFrom) form.append("resumeFrom", String(resumeFrom));
+
+    const controller = new AbortController();
+    abortRef.current = controller;
+    // 1行でも結果を受け取っていれば（前回分を含む）続きから再開できる
+    let received = (resumeFrom ?? 0) > 1;
+    try {
+      await streamList("/reservation/import", {
+        method: "POST",
+        body: form,
+        onItems: (items) => {
+          if (items.length > 0) received = true;
+          onItems(items);
+        },
+        signal: controller.signal,
+      });
+      setDone(true);
+      setMessage("✅ 取込が完了しました。");
+    } catch (err) {
+      const detail = toFailureMessage(err);
+      if (err?.name === "AbortError") {
+        setMessage(received ? "取込を中断しました。続きから再開できます。" : "取込を中断しました。");
+      } else if (received) {
+        console.error("取込エラー:", err);
+        setMessage(`❌ 取込が途中で失敗しました。${detail ? `（${detail}）` : ""}続きから再開できます。`);
+      } else {
+        // ヘッダー行の不備・ファイルサイズ超過・未ログインなど、1行も取り込まれていない
+        console.error("取込エラー:", err);
+        setMessage(`❌ 取込を開始できませんでした。${detail ?? "ファイルの内容をご確認ください。"}`);
+      }
+    } finally {
+      abortRef.current = null;
+      setRunning(false);
+    }
+  };
+
+  const handleStart = (e) => {
+    e.preventDefault();
+    reset();
+    runImport(null);
+  };
+
+  const handleResume = () => runImport(lastRow + 1);
+
+  const handleAbort = () => abortRef.current?.abort();
+
+  return (
+    <div className="irp">
+      <header className="irp-header">
+        <h1 className="irp-title">予約一括取込</h1>
+      </header>
+
+      <form className="irp-card" onSubmit={handleStart}>
+        <label className="irp-file">
+          CSVファイル
+          <input
+            type="file"
+            accept=".csv,text/csv"
+            onChange={(e) => {
+              setFile(e.target.files?.[0] ?? null);
+              reset();
+            }}
+            disabled={running}
+          />
+        </label>
+
+        <div className="irp-actions">
+          <button type="submit" className="btn primary" disabled={!file || running}>
+            {running ? "取込中…" : "取込開始"}
+          </button>
+          {running && (
+            <button type="button" className="btn ghost" onClick={handleAbort}>
+              中断
+            </button>
+          )}
+          {!running && !done && lastRow > 0 && (
+            <button type="button" className="btn ghost" onClick={handleResume}>
+              {lastRow + 1}行目から再開
+            </button>
+          )}
+        </div>
+
+        {(imported > 0 || failed > 0) && (
+          <p className="irp-summary">
+            登録 <strong>{imported.toLocaleString()}</strong> 件 / エラー{" "}
+            <strong className={failed > 0 ? "irp-ng" : ""}>{failed.toLocaleString()}</strong> 件
+          </p>
+        )}
+        {message && <p className="irp-message">{message}</p>}
+      </form>
+
+      {errorRows.length > 0 && (
+        <section className="irp-card">
+          <h2 className="irp-subtitle">
+            エラー行
+            {failed > errorRows.length && `（先頭 ${errorRows.length} 件を表示）`}
+          </h2>
+          <ul className="irp-errors">
+            {errorRows.map((e, i) => (
+              <li key={`${e.row}-${i}`}>
+                <span className="irp-row">{e.row}行目</span>
+                {e.messages.join(" / ") || "取込できませんでした"}
+              </li>
+            ))}
+          </ul>
+        </section>
+      )}
+    </div>
+  );
+}
@@ -3,6 +3,7 @@ import React, { useState } from "react";
 import axios from "axios";
 import "./RegisterBookingPage.css";
 import API_BASE from "../../utils/apiBase.js";
+import { invalidateBookings } from "../../lib/bookingLookup.js";
 
 export default function RegisterBookingPage() {
   const [formData, setFormData] = useState({
@@ -45,6 +46,7 @@ export default function RegisterBookingPage() {
         headers: { "Content-Type": "application/json" },
         validateStatus: (s) => s >= 200 && s < 300,
       });
+      invalidateBookings();
 
       const msg =
         typeof res.data === "string"
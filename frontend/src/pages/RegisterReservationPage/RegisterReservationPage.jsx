@@ -4,20 +4,7 @@ import { FaSearch } from "react-icons/fa";
 import RegisterModal from "../../components/Modal/RegisterModal/RegisterModal";
 import "./RegisterReservationPage.css";
 import API_BASE from "../../utils/apiBase.js";
-
-/** ひらがな/半角カナ → 全角カタカナ へ正規化し、余計な文字を除去 */
-const toKatakana = (input) => {
-  if (!input) return "";
-  let s = input.normalize("NFKC"); // 半角→全角など互換分解で正規化
-  // ひらがな→カタカナ（Unicodeで +0x60 シフト）
-  s = s.replace(/[\u3041-\u3096]/g, (ch) =>
-    String.fromCharCode(ch.charCodeAt(0) + 0x60)
-  );
-  // 許可：全角カタカナ・長音符・中点・スペースのみ
-  s = s.replace(/[^\u30A0-\u30FFー・\s]/g, "");
-  // スペース整形
-  return s.trim().replace(/\s{2,}/g, " ");
-};
+import { toKatakana } from "../../utils/textUtils.js";
 
 export default function RegisterReservationPage() {
   // 入力フォーム
@@ -8,9 +8,28 @@ import './SearchGuestPage.css';
 import EditGuestModal from '../../components/Modal/EditGuestModal/EditGuestModal'
 import EditReservationModal from '../../components/Modal/EditReservationModal/EditReservationModal.tsx';
 import API_BASE from "../../utils/apiBase.js";
+import { useBookingLookup, expandGuestDetails } from "../../lib/bookingLookup.js";
+import { normalizeGuestQuery, useKanaHandlers } from "../../utils/textUtils.js";
 
 axios.defaults.withCredentials = true;
 
+// 履歴（アーカイブ済み）の検索結果を稼働中の結果にまとめる（同じ宿泊者は予約を連結）
+const mergeHistory = (active, history) => {
+  const merged = active.map((d) => ({ ...d, reservations: [...(d?.reservations ?? [])] }));
+  const byId = new Map(merged.map((d) => [d.guest?.id, d]));
+  for (const h of history) {
+    const archived = (h?.reservations ?? []).map((r) => ({ ...r, archived: true }));
+    const current = byId.get(h?.guest?.id);
+    if (current) {
+      current.reservations.push(...archived);
+      current.bookings = [...(current.bookings ?? []), ...(h.bookings ?? [])];
+    } else {
+      merged.push({ ...h, reservations: archived });
+    }
+  }
+  return merged;
+};
+
 const SearchGuestPage = () => {
   // 検索フォーム
   const [formData, setFormData] = useState({
@@ -25,11 +44,13 @@ const SearchGuestPage = () => {
   // 結果・状態
   const [results, setResults] = useState([]);
   const [error, setError] = useState('');
+  const [historyWarning, setHistoryWarning] = useState('');
   const [loading, setLoading] = useState(false);
 
   // 表示トグル
   const [showCheckedOut, setShowCheckedOut] = useState(true);
   const [showDeleted, setShowDeleted] = useState(false);
+  const [showHistory, setShowHistory] = useState(false);
 
   // モーダル
   const [selectedGuestDetail, setSelectedGuestDetail] = useState(null);
@@ -37,11 +58,18 @@ const SearchGuestPage = () => {
   const [guestModalOpen, setGuestModalOpen] = useState(false);
   const [reservationModalOpen, setReservationModalOpen] = useState(false);
 
+  // 宿泊プランはキャッシュから引く（検索のたびに取り直さない）
+  const findBooking = useBookingLookup();
+
   const handleChange = (e) => {
     const { name, value } = e.target;
     setFormData((prev) => ({ ...prev, [name]: value }));
   };
 
+  // フリガナはひらがな・半角カナでもカタカナに揃える
+  const setKana = (next) => setFormData((prev) => ({ ...prev, kanaName: next }));
+  const kana = useKanaHandlers(formData.kanaName, setKana);
+
   // いずれか埋まっていれば検索可能
   const canSearch = useMemo(() => {
     const { id, name, kanaName, phone, checkInDate, checkOutDate } = formData;
@@ -52,20 +80,38 @@ const SearchGuestPage = () => {
     if (!canSearch) return;
     setLoading(true);
     setError('');
-    try {
-      const res = await axios.post(`${API_BASE}/guest/search`, {
-        ...formData,
-        showDeleted,
-        showCheckedOut,
-      });
-      setResults(Array.isArray(res.data) ? res.data : []);
-    } catch (err) {
-      console.error('検索失敗:', err);
+    setHistoryWarning('');
+    const body = {
+      ...normalizeGuestQuery(formData),
+      showDeleted,
+      showCheckedOut,
+    };
+    // 過去の履歴は別テーブルにあるため、必要なときだけ履歴検索も併せて行う
+    // 履歴検索が失敗しても稼働中の検索結果は表示する
+    const [res, history] = await Promise.allSettled([
+      axios.post(`${API_BASE}/guest/search`, body),
+      showHistory ? axios.post(`${API_BASE}/guest/history/search`, body) : null,
+    ]);
+    // プランを重複排除した形式でも受け付ける（想定外の応答は失敗として扱う）
+    const active = res.status === 'fulfilled' ? expandGuestDetails(res.value.data) : null;
+    if (!active) {
+      console.error('検索失敗:', res.reason ?? res.value?.data);
       setError('検索に失敗しました。入力内容をご確認ください。');
       setResults([]);
-    } finally {
       setLoading(false);
+      return;
+    }
+
+    let archived = null;
+    if (showHistory) {
+      archived = history.status === 'fulfilled' ? expandGuestDetails(history.value.data) : null;
+      if (!archived) {
+        console.warn('履歴検索失敗:', history.reason ?? history.value?.data);
+        setHistoryWarning('過去の履歴は検索できませんでした。現在の宿泊者のみ表示しています。');
+      }
     }
+    setResults(archived ? mergeHistory(active, archived) : active);
+    setLoading(false);
   };
 
   const onSubmit = (e) => {
@@ -84,6 +130,7 @@ const SearchGuestPage = () => {
     });
     setResults([]);
     setError('');
+    setHistoryWarning('');
   };
 
   return (
@@ -107,8 +154,7 @@ const SearchGuestPage = () => {
               type="text"
               name="kanaName"
               placeholder="フリガナ"
-              value={formData.kanaName}
-              onChange={handleChange}
+              {...kana}
               aria-label="フリガナ"
             />
           </div>
@@ -170,6 +216,15 @@ const SearchGuestPage = () => {
               {showDeleted ? '削除済みも表示中' : '削除済みも表示'}
             </button>
 
+            <button
+              type="button"
+              className={`ghost-button ${showHistory ? 'is-on' : ''}`}
+              onClick={() => setShowHistory((v) => !v)}
+              title="アーカイブ済みの過去の宿泊履歴も検索する"
+            >
+              {showHistory ? '過去の履歴も検索中' : '過去の履歴も検索'}
+            </button>
+
             <button
               type="button"
               className="ghost-button"
@@ -183,6 +238,7 @@ const SearchGuestPage = () => {
 
         {/* メッセージ */}
         {error && <p className="error">{error}</p>}
+        {historyWarning && <p className="warning">{historyWarning}</p>}
 
         {/* ===== 結果（カード2カラム / 画像②レイアウト） ===== */}
         <div className="results-container">
@@ -228,7 +284,7 @@ const SearchGuestPage = () => {
                             );
                             const latest = sorted[0];
                             const found =
-                              bookings.find((b) => b?.id === latest?.bookingId)?.name ||
+                              findBooking(latest?.bookingId, bookings)?.name ||
                               bookings[0]?.name;
                             return found || 'プラン不明';
                           })()}
@@ -266,8 +322,7 @@ const SearchGuestPage = () => {
                       )}
 
                       {visibleReservations.map((r) => {
-                        const booking =
-                          bookings.find((b) => b?.id === r?.bookingId) || null;
+                        const booking = findBooking(r?.bookingId, bookings);
 
                         return (
                           <div key={r.id} className="sg-res-row">
@@ -275,6 +330,7 @@ const SearchGuestPage = () => {
                               <div className="sg-res-title">
                                 <FaBed className="sg-ico" />
                                 {booking?.name ?? 'プラン不明'}
+                                {r.archived && <span className="badge-archived">履歴</span>}
                               </div>
                               <div className="sg-res-sub">
                                 <span>
@@ -295,17 +351,20 @@ const SearchGuestPage = () => {
                                 </span>
                               </div>
                             </div>
-                            <div className="sg-res-actions">
-                              <button
-                                className="btn outline"
-                                onClick={() => {
-                                  setSelectedReservation(r);
-                                  setReservationModalOpen(true);
-                                }}
-                              >
-                                <FaEdit /> 予約編集
-                              </button>
-                            </div>
+                            {/* 履歴は参照のみ（編集不可） */}
+                            {!r.archived && (
+                              <div className="sg-res-actions">
+                                <button
+                                  className="btn outline"
+                                  onClick={() => {
+                                    setSelectedReservation(r);
+                                    setReservationModalOpen(true);
+                                  }}
+                                >
+                                  <FaEdit /> 予約編集
+                                </button>
+                              </div>
+                            )}
                           </div>
                         );
                       })}
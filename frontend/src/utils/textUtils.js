@@ -15,6 +15,19 @@ export const toKatakana = (input) => {
   return s.trim().replace(/\s{2,}/g, " ");
 };
 
+/**
+ * 検索条件の正規化
+ * - フリガナ：登録時と同じくカタカナに揃える
+ * - 電話番号・メール：前後の空白のみ除去
+ *   （保存値は入力そのままのため、ハイフン除去や小文字化をすると一致しなくなる）
+ */
+export const normalizeGuestQuery = (q) => ({
+  ...q,
+  ...(q.kanaName !== undefined && { kanaName: toKatakana(q.kanaName) }),
+  ...(typeof q.phone === "string" && { phone: q.phone.trim() }),
+  ...(typeof q.email === "string" && { email: q.email.trim() }),
+});
+
 /**
  * フリガナ入力用ハンドラ群（IME変換中のチラつき防止）
  * 使い方：